@@ -0,0 +1,68 @@
+package com.minegolem.fantaprof.benchmark;
+
+import com.minegolem.fantaprof.repository.database.Professor;
+import com.minegolem.fantaprof.repository.database.Team;
+import com.minegolem.fantaprof.service.LeaderboardService;
+import com.minegolem.fantaprof.utils.TeamScoring;
+import com.minegolem.fantaprof.utils.dto.LeaderboardEventDTO;
+import com.minegolem.fantaprof.utils.dto.TeamScoreDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LeaderboardBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int teams;
+
+    private SyntheticLeague league;
+    private LeaderboardService leaderboard;
+    private Map<Long, Professor> professorsById;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        league = new SyntheticLeague(teams, 42);
+        leaderboard = new LeaderboardService(null, null);
+        leaderboard.rebuild(league.professors, league.teams);
+
+        professorsById = new HashMap<>();
+        league.professors.forEach(professor -> professorsById.put(professor.getId(), professor));
+        random = new SplittableRandom(7);
+    }
+
+    // Lettura della classifica già calcolata (percorso di GET /leaderboard)
+    @Benchmark
+    public List<TeamScoreDTO> cachedRanking() {
+        return leaderboard.getRanking();
+    }
+
+    // Un evento di punteggio: aggiornamento incrementale + delta delle posizioni
+    @Benchmark
+    public LeaderboardEventDTO scoreChange() {
+        long professorId = 1 + random.nextInt(SyntheticLeague.PROFESSORS);
+        return leaderboard.scoreChanged(professorId, random.nextInt(-200, 500));
+    }
+
+    // Ricalcolo completo come nel vecchio TeamService.getTeamScores (senza il costo del database)
+    @Benchmark
+    public List<TeamScoreDTO> fullRecompute() {
+        Map<Long, long[]> totals = new HashMap<>();
+        Map<Long, String> names = new HashMap<>();
+        for (Team team : league.teams) {
+            Professor professor = professorsById.get(team.getProfId());
+            long points = professor == null ? 0 : TeamScoring.memberScore(professor.getScore(), team.isCaptain());
+            totals.computeIfAbsent(team.getUserId(), id -> new long[1])[0] += points;
+            names.putIfAbsent(team.getUserId(), team.getName());
+        }
+
+        List<TeamScoreDTO> ranking = new ArrayList<>(totals.size());
+        totals.forEach((userId, total) -> ranking.add(new TeamScoreDTO(userId, names.get(userId), total[0])));
+        ranking.sort(Comparator.comparing(TeamScoreDTO::getScore).reversed());
+        return ranking;
+    }
+}
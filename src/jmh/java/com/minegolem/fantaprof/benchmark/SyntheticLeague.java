@@ -0,0 +1,51 @@
+package com.minegolem.fantaprof.benchmark;
+
+import com.minegolem.fantaprof.repository.database.Professor;
+import com.minegolem.fantaprof.repository.database.Team;
+import com.minegolem.fantaprof.utils.dto.TeamMemberDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Lega sintetica per i benchmark: un catalogo fisso di professori e N squadre da 5,
+ * con il primo professore scelto come capitano.
+ */
+final class SyntheticLeague {
+
+    static final int PROFESSORS = 60;
+    static final int TEAM_SIZE = 5;
+
+    final List<Professor> professors = new ArrayList<>(PROFESSORS);
+    final List<Team> teams;
+
+    SyntheticLeague(int teamCount, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+
+        for (long id = 1; id <= PROFESSORS; id++) {
+            professors.add(new Professor(id, "Prof " + id, 5 + random.nextInt(30), random.nextInt(-200, 500)));
+        }
+
+        teams = new ArrayList<>(teamCount * TEAM_SIZE);
+        long rowId = 1;
+        for (long userId = 1; userId <= teamCount; userId++) {
+            int first = random.nextInt(PROFESSORS);
+            for (int i = 0; i < TEAM_SIZE; i++) {
+                long profId = (first + i * 7L) % PROFESSORS + 1;
+                teams.add(new Team(rowId++, "Team " + userId, userId, profId, i == 0));
+            }
+        }
+    }
+
+    List<TeamMemberDTO> members(int teamIndex) {
+        List<TeamMemberDTO> members = new ArrayList<>(TEAM_SIZE);
+        for (int i = 0; i < TEAM_SIZE; i++) {
+            Team team = teams.get(teamIndex * TEAM_SIZE + i);
+            Professor professor = professors.get((int) (team.getProfId() - 1));
+            members.add(new TeamMemberDTO(team.getName(), team.isCaptain(), professor.getId(),
+                    professor.getName(), professor.getCost(), professor.getScore()));
+        }
+        return members;
+    }
+}
@@ -0,0 +1,38 @@
+package com.minegolem.fantaprof.benchmark;
+
+import com.minegolem.fantaprof.utils.dto.TeamMemberDTO;
+import com.minegolem.fantaprof.utils.dto.TeamPageDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TeamTotalBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int teams;
+
+    private List<List<TeamMemberDTO>> rows;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticLeague league = new SyntheticLeague(teams, 42);
+        rows = new ArrayList<>(teams);
+        for (int i = 0; i < teams; i++) {
+            rows.add(league.members(i));
+        }
+    }
+
+    // Totale con il capitano x2 calcolato per la pagina /team
+    @Benchmark
+    public TeamPageDTO teamPage() {
+        List<TeamMemberDTO> members = rows.get(next);
+        next = next + 1 == rows.size() ? 0 : next + 1;
+        return TeamPageDTO.of(members);
+    }
+}
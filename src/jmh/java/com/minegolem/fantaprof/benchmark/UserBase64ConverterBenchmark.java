@@ -0,0 +1,58 @@
+package com.minegolem.fantaprof.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minegolem.fantaprof.repository.converter.UserBase64Converter;
+import com.minegolem.fantaprof.repository.database.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+// Con -prof gc (attivo di default) si confrontano anche i byte allocati per operazione
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserBase64ConverterBenchmark {
+
+    private static final ObjectMapper LEGACY_MAPPER = new ObjectMapper();
+
+    private UserBase64Converter converter;
+    private User user;
+    private String encoded;
+    private String legacyEncoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        converter = new UserBase64Converter();
+        user = new User(42L, "mario.rossi", "password", 1250L, "USER");
+        encoded = converter.convertToDatabaseColumn(user);
+        legacyEncoded = legacyEncode();
+    }
+
+    @Benchmark
+    public String encode() {
+        return converter.convertToDatabaseColumn(user);
+    }
+
+    @Benchmark
+    public User decode() {
+        return converter.convertToEntityAttribute(encoded);
+    }
+
+    // Righe scritte dal vecchio formato, lette dal nuovo converter
+    @Benchmark
+    public User decodeLegacyRow() {
+        return converter.convertToEntityAttribute(legacyEncoded);
+    }
+
+    // Implementazione precedente, come riferimento
+    @Benchmark
+    public String legacyEncode() throws Exception {
+        return Base64.getEncoder().encodeToString(LEGACY_MAPPER.writeValueAsString(user).getBytes());
+    }
+
+    @Benchmark
+    public User legacyDecode() throws Exception {
+        return LEGACY_MAPPER.readValue(new String(Base64.getDecoder().decode(legacyEncoded)), User.class);
+    }
+}
@@ -0,0 +1,45 @@
+package com.minegolem.fantaprof.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Raccoglie latenze in nanosecondi e produce i percentili al termine della simulazione.
+ */
+final class LatencyRecorder {
+
+    private final ConcurrentLinkedQueue<Long> samples = new ConcurrentLinkedQueue<>();
+
+    void record(long nanos) {
+        samples.add(nanos);
+    }
+
+    int count() {
+        return samples.size();
+    }
+
+    Map<String, Object> summary() {
+        long[] sorted = samples.stream().mapToLong(Long::longValue).sorted().toArray();
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", sorted.length);
+        if (sorted.length == 0) {
+            return summary;
+        }
+
+        summary.put("p50_ms", percentile(sorted, 0.50));
+        summary.put("p90_ms", percentile(sorted, 0.90));
+        summary.put("p99_ms", percentile(sorted, 0.99));
+        summary.put("p999_ms", percentile(sorted, 0.999));
+        summary.put("max_ms", sorted[sorted.length - 1] / 1_000_000.0);
+        summary.put("mean_ms", Arrays.stream(sorted).average().orElse(0) / 1_000_000.0);
+        return summary;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+}
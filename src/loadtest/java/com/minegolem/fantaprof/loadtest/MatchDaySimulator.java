@@ -0,0 +1,392 @@
+package com.minegolem.fantaprof.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minegolem.fantaprof.FantaProfApplication;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Simulatore di una giornata di FantaProf: avvia l'applicazione su H2 in modalità JWT stateless,
+ * collega migliaia di client STOMP ed esegue uno script di eventi (creazione squadre, raffiche di punteggi,
+ * ricariche della classifica). Riporta percentili di latenza di push e HTTP, query Hibernate, heap e GC.
+ *
+ * <p>Uso: {@code ./gradlew matchDayLoad -Pclients=2000 -Pscript=path/to/script}</p>
+ */
+public final class MatchDaySimulator {
+
+    private static final int TEAM_SIZE = 5;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final String baseUrl;
+    private final String adminPassword;
+    private final LatencyRecorder httpLatency = new LatencyRecorder();
+    private final LatencyRecorder pushLatency = new LatencyRecorder();
+    private final Map<Long, Long> sentAtByVersion = new ConcurrentHashMap<>();
+    private final AtomicInteger httpErrors = new AtomicInteger();
+    private final AtomicInteger userSequence = new AtomicInteger();
+
+    private List<Long> professorIds = List.of();
+    private List<String> ruleKeys = List.of();
+    private String adminToken;
+    private String viewerToken;
+    private int scoreEvents;
+    private int teamsCreated;
+
+    private MatchDaySimulator(String baseUrl, String adminPassword) {
+        this.baseUrl = baseUrl;
+        this.adminPassword = adminPassword;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int clients = Integer.parseInt(options.getOrDefault("clients", "2000"));
+        int professors = Integer.parseInt(options.getOrDefault("professors", "40"));
+        Path report = Path.of(options.getOrDefault("report", "build/reports/loadtest/matchday.json"));
+        List<String> script = readScript(options.get("script"));
+
+        SpringApplication application = new SpringApplication(FantaProfApplication.class);
+        application.setAdditionalProfiles("loadtest");
+        // Il profilo loadtest è stateless: un segreto JWT casuale per ogni esecuzione, mai nel repository
+        byte[] secret = new byte[64];
+        new SecureRandom().nextBytes(secret);
+        application.setDefaultProperties(Map.of("fantaprof.security.jwt-secret", Base64.getEncoder().encodeToString(secret)));
+
+        try (ConfigurableApplicationContext context = application.run()) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            MatchDaySimulator simulator = new MatchDaySimulator("http://localhost:" + port,
+                    context.getEnvironment().getProperty("fantaprof.admin.password", "admin"));
+            Statistics statistics = context.getBean(EntityManagerFactory.class)
+                    .unwrap(SessionFactory.class)
+                    .getStatistics();
+
+            simulator.seed(professors);
+
+            try (StompSwarm swarm = new StompSwarm()) {
+                long connectStart = System.nanoTime();
+                swarm.connect("ws://localhost:" + port + "/ws/websocket", clients, 200);
+                long connectMillis = (System.nanoTime() - connectStart) / 1_000_000;
+
+                statistics.clear();
+                long[] gcBefore = gcTotals();
+                long runStart = System.nanoTime();
+
+                for (String line : script) {
+                    simulator.execute(line);
+                }
+
+                // Lascia arrivare gli ultimi push prima di chiudere i conti
+                Thread.sleep(2000);
+
+                Map<String, Object> result = simulator.report(swarm, statistics, gcBefore,
+                        (System.nanoTime() - runStart) / 1_000_000, connectMillis);
+
+                Files.createDirectories(report.toAbsolutePath().getParent());
+                simulator.objectMapper.writerWithDefaultPrettyPrinter().writeValue(report.toFile(), result);
+                System.out.println(simulator.objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(result));
+                System.out.println("Report scritto in " + report.toAbsolutePath());
+            }
+        }
+    }
+
+    // Professori iniziali, catalogo delle regole e un utente che guarda la classifica.
+    // Le API /api/admin/** richiedono il ruolo ADMIN: il simulatore usa il JWT dell'admin creato all'avvio
+    private void seed(int professors) throws Exception {
+        adminToken = login("admin", adminPassword);
+        for (int i = 0; i < professors; i++) {
+            post("/api/admin/add", form(Map.of("name", "Prof " + i, "cost", String.valueOf(10 + i % 20))), adminToken);
+        }
+
+        professorIds = new ArrayList<>();
+        for (JsonNode professor : getJson("/api/v1/professors", null).get("professors")) {
+            professorIds.add(professor.get("id").asLong());
+        }
+
+        ruleKeys = new ArrayList<>();
+        for (JsonNode rule : getJson("/api/admin/rules", adminToken).get("rules")) {
+            ruleKeys.add(rule.get("key").asText());
+        }
+
+        viewerToken = registerAndLogin(userSequence.incrementAndGet());
+    }
+
+    private void execute(String line) throws Exception {
+        String[] parts = line.trim().split("\\s+");
+        switch (parts[0]) {
+            case "teams" -> parallel(Integer.parseInt(parts[1]), 32, this::createTeam);
+            case "burst" -> burst(Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+            case "batch" -> batch(Integer.parseInt(parts[1]));
+            case "reload" -> parallel(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), this::reloadLeaderboard);
+            case "pause" -> Thread.sleep(Long.parseLong(parts[1]));
+            default -> throw new IllegalArgumentException("Unknown script command: " + line);
+        }
+    }
+
+    private void createTeam() throws Exception {
+        int user = userSequence.incrementAndGet();
+        String token = registerAndLogin(user);
+
+        List<Long> shuffled = new ArrayList<>(professorIds);
+        Collections.shuffle(shuffled);
+        List<Long> members = shuffled.subList(0, Math.min(TEAM_SIZE, shuffled.size()));
+
+        StringBuilder body = new StringBuilder(form(Map.of(
+                "name", "Squadra " + user,
+                "capitanoId", "capitano_" + members.get(0))));
+        members.forEach(id -> body.append("&selectedItems=").append(id));
+
+        post("/api/team/add", body.toString(), token);
+        synchronized (this) {
+            teamsCreated++;
+        }
+    }
+
+    // Eventi singoli a intervallo fisso, come l'admin che clicca durante la lezione
+    private void burst(int events, long intervalMillis) throws Exception {
+        for (int i = 0; i < events; i++) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            sendScores(List.of(Map.of(
+                    "professorId", professorIds.get(random.nextInt(professorIds.size())),
+                    "eventKey", ruleKeys.get(random.nextInt(ruleKeys.size())))));
+            Thread.sleep(intervalMillis);
+        }
+    }
+
+    private void batch(int entries) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Map<String, Object>> batch = new ArrayList<>();
+        for (int i = 0; i < entries; i++) {
+            batch.add(Map.of(
+                    "professorId", professorIds.get(random.nextInt(professorIds.size())),
+                    "eventKey", ruleKeys.get(random.nextInt(ruleKeys.size()))));
+        }
+        sendScores(batch);
+    }
+
+    private void sendScores(List<? extends Map<String, ?>> entries) throws Exception {
+        long sentAt = System.nanoTime();
+        HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/admin/scores"))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + adminToken)
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(entries))));
+
+        if (response.statusCode() == 200) {
+            sentAtByVersion.put(objectMapper.readTree(response.body()).get("version").asLong(), sentAt);
+            synchronized (this) {
+                scoreEvents++;
+            }
+        }
+    }
+
+    private void reloadLeaderboard() throws Exception {
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/leaderboard"))
+                .header("Authorization", "Bearer " + viewerToken)
+                .GET());
+    }
+
+    private String registerAndLogin(int user) throws Exception {
+        String username = "tifoso-" + user;
+        post("/api/user/add", form(Map.of("username", username, "password", "password")), null);
+        return login(username, "password");
+    }
+
+    private String login(String username, String password) throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(
+                        Map.of("username", username, "password", password)))));
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed for " + username + ": HTTP " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    private Map<String, Object> report(StompSwarm swarm, Statistics statistics, long[] gcBefore,
+                                       long runMillis, long connectMillis) {
+        List<StompSwarm.Receipt> receipts = swarm.receipts();
+        // Un push accorpato dal server conta per ogni versione che contiene
+        receipts.forEach(receipt -> {
+            for (long version = receipt.baseVersion() + 1; version <= receipt.version(); version++) {
+                Long sentAt = sentAtByVersion.get(version);
+                if (sentAt != null) {
+                    pushLatency.record(receipt.receivedAt() - sentAt);
+                }
+            }
+        });
+
+        long expectedPushes = (long) scoreEvents * swarm.connected();
+
+        Map<String, Object> clients = new LinkedHashMap<>();
+        clients.put("connected", swarm.connected());
+        clients.put("failures", swarm.failures());
+        clients.put("connect_ms", connectMillis);
+        clients.put("messages_received", receipts.size());
+        clients.put("score_pushes_expected", expectedPushes);
+        clients.put("score_pushes_received", pushLatency.count());
+
+        Map<String, Object> database = new LinkedHashMap<>();
+        database.put("prepared_statements", statistics.getPrepareStatementCount());
+        database.put("queries", statistics.getQueryExecutionCount());
+        database.put("entity_loads", statistics.getEntityLoadCount());
+        database.put("entity_inserts", statistics.getEntityInsertCount());
+        database.put("transactions", statistics.getTransactionCount());
+
+        long[] gcAfter = gcTotals();
+        Map<String, Object> jvm = new LinkedHashMap<>();
+        jvm.put("heap_used_mb", ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() >> 20);
+        jvm.put("heap_peak_mb", ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum() >> 20);
+        jvm.put("gc_collections", gcAfter[0] - gcBefore[0]);
+        jvm.put("gc_time_ms", gcAfter[1] - gcBefore[1]);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("run_ms", runMillis);
+        result.put("score_events", scoreEvents);
+        result.put("teams_created", teamsCreated);
+        result.put("http_errors", httpErrors.get());
+        result.put("push_latency", pushLatency.summary());
+        result.put("http_latency", httpLatency.summary());
+        result.put("clients", clients);
+        result.put("database", database);
+        result.put("jvm", jvm);
+        return result;
+    }
+
+    private static long[] gcTotals() {
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[]{count, time};
+    }
+
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    private static void parallel(int times, int concurrency, Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < times; i++) {
+                futures.add(executor.submit(() -> {
+                    task.run();
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void post(String path, String formBody, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(formBody));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        send(request);
+    }
+
+    private JsonNode getJson(String path, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return objectMapper.readTree(send(request).body());
+    }
+
+    // Le risposte 3xx sono normali: i controller MVC rispondono con redirect
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<String> response = http.send(request.timeout(Duration.ofSeconds(30)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        httpLatency.record(System.nanoTime() - start);
+
+        if (response.statusCode() >= 400) {
+            httpErrors.incrementAndGet();
+        }
+        return response;
+    }
+
+    private static String form(Map<String, String> fields) {
+        return fields.entrySet().stream()
+                .map(field -> URLEncoder.encode(field.getKey(), StandardCharsets.UTF_8) + "="
+                        + URLEncoder.encode(field.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+    }
+
+    private static List<String> readScript(String location) throws IOException {
+        String content;
+        if (location != null) {
+            content = Files.readString(Path.of(location));
+        } else {
+            try (InputStream in = MatchDaySimulator.class.getResourceAsStream("/matchday.script")) {
+                if (in == null) {
+                    throw new IllegalStateException("matchday.script not found on classpath");
+                }
+                content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        }
+
+        return content.lines()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .toList();
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
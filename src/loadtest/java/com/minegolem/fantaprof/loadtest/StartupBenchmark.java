@@ -0,0 +1,161 @@
+package com.minegolem.fantaprof.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Misura il tempo di avvio del nodo nelle tre modalità (JIT classico, contesto AOT, AOT + archivio CDS):
+ * ogni giro lancia un processo nuovo, attende la riga "Started ..." di Spring Boot e lo termina.
+ * Riporta i percentili del tempo misurato dall'esterno e di quello dichiarato dall'applicazione.
+ *
+ * <p>Uso: {@code ./gradlew startupBenchmark -Pruns=5 [-PstartupArgs="--spring.profiles.active=prod"]}</p>
+ */
+public final class StartupBenchmark {
+
+    private static final Pattern STARTED = Pattern.compile("Started \\S+ in ([\\d.]+) seconds");
+    private static final long TIMEOUT_SECONDS = 180;
+
+    private final String java;
+    private final Path jar;
+    private final Path archive;
+    private final List<String> appArgs;
+
+    private StartupBenchmark(String java, Path jar, Path archive, List<String> appArgs) {
+        this.java = java;
+        this.jar = jar;
+        this.archive = archive;
+        this.appArgs = appArgs;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        Path report = Path.of(options.getOrDefault("report", "build/reports/startup/startup.json"));
+        List<String> appArgs = Arrays.asList(options.getOrDefault("app-args",
+                "--spring.profiles.active=prod --server.port=0").trim().split("\\s+"));
+
+        StartupBenchmark benchmark = new StartupBenchmark(
+                options.getOrDefault("java", "java"),
+                Path.of(options.get("jar")),
+                Path.of(options.get("archive")),
+                appArgs);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("runs", runs);
+        result.put("jit", benchmark.measure(runs, List.of()));
+        result.put("aot", benchmark.measure(runs, List.of("-Dspring.aot.enabled=true")));
+        if (Files.exists(benchmark.archive)) {
+            result.put("aot_cds", benchmark.measure(runs, List.of("-Dspring.aot.enabled=true",
+                    "-XX:SharedArchiveFile=" + benchmark.archive)));
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(report.toFile(), result);
+        System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(result));
+        System.out.println("Report scritto in " + report.toAbsolutePath());
+    }
+
+    private Map<String, Object> measure(int runs, List<String> jvmArgs) throws Exception {
+        LatencyRecorder wall = new LatencyRecorder();
+        LatencyRecorder reported = new LatencyRecorder();
+
+        // Il primo avvio scalda la cache del file system e non viene contato
+        start(jvmArgs);
+        for (int i = 0; i < runs; i++) {
+            long[] sample = start(jvmArgs);
+            wall.record(sample[0]);
+            reported.record(sample[1]);
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("jvm_args", jvmArgs);
+        summary.put("wall", wall.summary());
+        summary.put("reported", reported.summary());
+        return summary;
+    }
+
+    // Restituisce {tempo fino alla riga "Started", tempo dichiarato da Spring Boot}, entrambi in nanosecondi
+    private long[] start(List<String> jvmArgs) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jar.toString());
+        command.addAll(appArgs);
+
+        long begin = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(jar.toAbsolutePath().getParent().toFile())
+                .redirectErrorStream(true)
+                .start();
+
+        // readLine() si blocca finché il processo non scrive o termina: l'output si legge su un altro thread,
+        // così un avvio bloccato scade dopo TIMEOUT_SECONDS invece di fermare il benchmark
+        CompletableFuture<long[]> started = new CompletableFuture<>();
+        Thread reader = new Thread(() -> awaitStarted(process, begin, started), "startup-output");
+        reader.setDaemon(true);
+        reader.start();
+
+        try {
+            return started.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            process.destroyForcibly();
+            throw new IllegalStateException("Application did not start within " + TIMEOUT_SECONDS + "s: " + command, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Application exited before startup completed: " + command, e.getCause());
+        } finally {
+            process.destroy();
+            if (!process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    // Dopo la riga "Started" continua a svuotare l'output: il processo non si blocca su una pipe piena
+    private static void awaitStarted(Process process, long begin, CompletableFuture<long[]> started) {
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                Matcher matcher = STARTED.matcher(line);
+                if (!started.isDone() && matcher.find()) {
+                    long wall = System.nanoTime() - begin;
+                    long reported = (long) (Double.parseDouble(matcher.group(1)) * 1_000_000_000L);
+                    started.complete(new long[]{wall, reported});
+                }
+            }
+            started.completeExceptionally(new EOFException("Output closed before the \"Started\" line"));
+        } catch (IOException e) {
+            started.completeExceptionally(e);
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,128 @@
+package com.minegolem.fantaprof.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sciame di client STOMP che ascoltano i topic della classifica come i browser durante la giornata.
+ * Ogni messaggio ricevuto viene annotato con versione e istante di arrivo per calcolare la latenza di push.
+ */
+final class StompSwarm implements AutoCloseable {
+
+    static final String[] TOPICS = {"/topic/orders/modifyScore", "/topic/orders/creaSquadra"};
+
+    record Receipt(long baseVersion, long version, long receivedAt) {
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final WebSocketStompClient client;
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    private final List<StompSession> sessions = new ArrayList<>();
+    private final ConcurrentLinkedQueue<Receipt> receipts = new ConcurrentLinkedQueue<>();
+    private final AtomicLong failures = new AtomicLong();
+
+    StompSwarm() {
+        scheduler.setPoolSize(2);
+        scheduler.setThreadNamePrefix("swarm-");
+        scheduler.initialize();
+
+        client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new StringMessageConverter());
+        client.setTaskScheduler(scheduler);
+        client.setInboundMessageSizeLimit(1024 * 1024);
+    }
+
+    // Apre i client a gruppi per non saturare l'handshake
+    void connect(String url, int clients, int batchSize) {
+        for (int start = 0; start < clients; start += batchSize) {
+            List<CompletableFuture<StompSession>> batch = new ArrayList<>();
+            for (int i = start; i < Math.min(clients, start + batchSize); i++) {
+                batch.add(client.connectAsync(url, new Listener()));
+            }
+
+            for (CompletableFuture<StompSession> future : batch) {
+                try {
+                    sessions.add(future.get(30, TimeUnit.SECONDS));
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    int connected() {
+        return (int) sessions.stream().filter(StompSession::isConnected).count();
+    }
+
+    long failures() {
+        return failures.get();
+    }
+
+    List<Receipt> receipts() {
+        return List.copyOf(receipts);
+    }
+
+    @Override
+    public void close() {
+        sessions.forEach(session -> {
+            try {
+                session.disconnect();
+            } catch (Exception ignored) {
+                // la sessione potrebbe essere già chiusa dal server
+            }
+        });
+        client.stop();
+        scheduler.shutdown();
+    }
+
+    private final class Listener extends StompSessionHandlerAdapter {
+
+        @Override
+        public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+            for (String topic : TOPICS) {
+                session.subscribe(topic, this);
+            }
+        }
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return String.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            long receivedAt = System.nanoTime();
+            try {
+                JsonNode event = objectMapper.readTree((String) payload);
+                JsonNode version = event.get("version");
+                if (version != null) {
+                    JsonNode baseVersion = event.get("baseVersion");
+                    long base = baseVersion != null ? baseVersion.asLong() : version.asLong() - 1;
+                    receipts.add(new Receipt(base, version.asLong(), receivedAt));
+                }
+            } catch (Exception e) {
+                failures.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void handleTransportError(StompSession session, Throwable exception) {
+            failures.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.minegolem.fantaprof.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minegolem.fantaprof.service.cluster.ClusterBus;
+import com.minegolem.fantaprof.service.cluster.LoopbackClusterBus;
+import com.minegolem.fantaprof.service.cluster.StompClusterBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Trasporto tra i nodi per fantaprof.broker.mode=cluster, scelto a runtime e non con @ConditionalOnProperty:
+// il contesto generato da AOT segue comunque la configurazione del deploy.
+// loopback: nodi nella stessa JVM (test, simulatore); stomp: broker STOMP esterno, lo stesso del relay
+@Configuration
+public class ClusterConfig {
+
+    @Bean
+    public ClusterBus clusterBus(@Value("${fantaprof.cluster.transport:loopback}") String transport,
+                                 @Value("${fantaprof.broker.relay.host:localhost}") String host,
+                                 @Value("${fantaprof.broker.relay.port:61613}") int port,
+                                 @Value("${fantaprof.broker.relay.login:guest}") String login,
+                                 @Value("${fantaprof.broker.relay.passcode:guest}") String passcode,
+                                 @Value("${fantaprof.cluster.destination:/topic/fantaprof.cluster}") String destination,
+                                 ObjectMapper objectMapper) {
+        return switch (transport) {
+            case "loopback" -> LoopbackClusterBus.SHARED;
+            case "stomp" -> new StompClusterBus(host, port, login, passcode, destination, objectMapper);
+            default -> throw new IllegalStateException("Unsupported fantaprof.cluster.transport: " + transport
+                    + " (expected loopback or stomp)");
+        };
+    }
+}
@@ -1,28 +1,69 @@
 package com.minegolem.fantaprof.config;
 
+import com.minegolem.fantaprof.repository.JobLockRepository;
+import com.minegolem.fantaprof.repository.LeaderboardVersionRepository;
 import com.minegolem.fantaprof.repository.UserRepository;
+import com.minegolem.fantaprof.repository.database.JobLock;
+import com.minegolem.fantaprof.repository.database.LeaderboardVersion;
 import com.minegolem.fantaprof.repository.database.User;
-import lombok.AllArgsConstructor;
+import com.minegolem.fantaprof.service.ScoreEventService;
+import com.minegolem.fantaprof.service.TeamService;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 
 @Component
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Slf4j
 public class DataInitializer implements CommandLineRunner {
 
     private final UserRepository userRepository;
+    private final ScoreEventService scoreEventService;
+    private final JobLockRepository jobLockRepository;
+    private final LeaderboardVersionRepository leaderboardVersionRepository;
+    private final TeamService teamService;
 
+    @Value("${fantaprof.events.restore-on-startup:false}")
+    private boolean restoreScores;
+
+    @Value("${fantaprof.admin.password:admin}")
+    private String adminPassword;
+
+    // Ricalcolo di tutti i totali salvati: in produzione lo fa una volta la migrazione V9, qui solo su richiesta
+    @Value("${fantaprof.leaderboard.backfill-on-startup:false}")
+    private boolean backfillScoreTots;
+
+    // Idempotente: al riavvio l'admin esistente resta com'è, viene creato solo sul primo avvio
     @Override
     public void run(String... args) {
-        var existingAdmin = userRepository.findByUsername("admin");
-        if (existingAdmin.isPresent()) {
-            userRepository.delete(existingAdmin.get());
-            log.info("Deleted existing admin user");
+        if (userRepository.findByUsername("admin").isEmpty()) {
+            userRepository.save(new User("admin", adminPassword, 0L, "ADMIN"));
+            log.info("Admin user created");
+        }
+
+        // Righe a riga singola create dalle migrazioni in produzione; in sviluppo (ddl-auto=update) si creano qui
+        if (!jobLockRepository.existsById(ScoreEventService.SNAPSHOT_JOB)) {
+            try {
+                jobLockRepository.save(new JobLock(ScoreEventService.SNAPSHOT_JOB, null));
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Job lock row created concurrently by another node");
+            }
+        }
+        if (!leaderboardVersionRepository.existsById(LeaderboardVersion.ROW)) {
+            try {
+                leaderboardVersionRepository.save(new LeaderboardVersion(LeaderboardVersion.ROW, 0));
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Leaderboard version row created concurrently by another node");
+            }
+        }
+
+        if (restoreScores) {
+            scoreEventService.restoreScores();
+        } else if (backfillScoreTots) {
+            log.info("Backfilled team totals for {} users", teamService.backfillScoreTots());
         }
-        User admin = new User("admin", "admin", 0L, "ADMIN");
-        userRepository.save(admin);
-        log.info("Admin user created: admin/admin");
     }
 }
@@ -0,0 +1,36 @@
+package com.minegolem.fantaprof.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+// Metriche esposte su /actuator/prometheus; @Timed sui service richiede l'aspect
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    // Code e thread dei canali STOMP: la coda in uscita cresce quando i client non riescono a stare al passo
+    @Bean
+    public MeterBinder brokerChannelMetrics(@Qualifier("clientInboundChannelExecutor") Executor inbound,
+                                            @Qualifier("clientOutboundChannelExecutor") Executor outbound) {
+        return registry -> Map.of("clientInboundChannel", inbound, "clientOutboundChannel", outbound)
+                .forEach((name, executor) -> {
+                    if (executor instanceof ThreadPoolTaskExecutor pool) {
+                        new ExecutorServiceMetrics(pool.getThreadPoolExecutor(), name, Tags.empty()).bindTo(registry);
+                    }
+                });
+    }
+}
@@ -0,0 +1,37 @@
+package com.minegolem.fantaprof.config;
+
+import com.minegolem.fantaprof.repository.database.User;
+import com.minegolem.fantaprof.service.cluster.ClusterBatch;
+import com.minegolem.fantaprof.service.cluster.ClusterEvent;
+import com.minegolem.fantaprof.utils.dto.LeaderboardDeltaDTO;
+import com.minegolem.fantaprof.utils.dto.LeaderboardEventDTO;
+import com.minegolem.fantaprof.utils.dto.MemberScoreDTO;
+import com.minegolem.fantaprof.utils.dto.ScoringRuleDTO;
+import com.minegolem.fantaprof.utils.dto.TeamDeltaDTO;
+import com.minegolem.fantaprof.utils.dto.TeamUpdateDTO;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Hint per l'immagine nativa: i tipi serializzati a mano con Jackson (STOMP, SSE, colonne convertite, batch tra i nodi)
+ * non passano dai controller, quindi l'AOT di Spring non li vede da solo.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                LeaderboardEventDTO.class,
+                LeaderboardDeltaDTO.class,
+                TeamDeltaDTO.class,
+                TeamUpdateDTO.class,
+                MemberScoreDTO.class,
+                ScoringRuleDTO.class,
+                User.class,
+                ClusterBatch.class,
+                ClusterEvent.class);
+
+        hints.resources().registerPattern("scoring-rules.json");
+    }
+}
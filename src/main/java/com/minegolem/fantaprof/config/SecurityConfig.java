@@ -2,17 +2,34 @@ package com.minegolem.fantaprof.config;
 
 import com.minegolem.fantaprof.config.filter.TeamFilter;
 import com.minegolem.fantaprof.utils.CustomAuthenticationProvider;
+import com.minegolem.fantaprof.utils.FantaPrincipal;
+import com.minegolem.fantaprof.utils.JWTAuthorizationFilter;
+import com.minegolem.fantaprof.utils.JWTTokenService;
+import com.minegolem.fantaprof.utils.SecurityConstants;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
-import org.springframework.security.config.annotation.web.configurers.LogoutConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.csrf.CsrfFilter;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.security.web.csrf.CsrfTokenRequestAttributeHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 
 @Configuration
 @EnableWebSecurity
@@ -21,11 +38,41 @@ public class SecurityConfig {
 
     private final CustomAuthenticationProvider customAuthenticationProvider;
     private final TeamFilter teamFilter;
+    private final JWTTokenService tokenService;
+
+    // In modalità stateless l'autenticazione viaggia solo nel JWT: nessuna sessione, nessun nodo "sticky"
+    @Value("${fantaprof.security.stateless:false}")
+    private boolean stateless;
+
+    // Credenziale del solo scraper Prometheus (Authorization: Bearer <token>), vuota = disattivata
+    @Value("${fantaprof.metrics.scrape-token:}")
+    private String scrapeToken;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        if (stateless) {
+            http
+                    .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                    .addFilterBefore(new JWTAuthorizationFilter(new ProviderManager(customAuthenticationProvider), tokenService),
+                            UsernamePasswordAuthenticationFilter.class)
+                    // Il JWT viaggia in un cookie, quindi serve la protezione CSRF: il token va nel cookie XSRF-TOKEN
+                    // e torna nell'header X-XSRF-TOKEN. Le chiamate con header Authorization non sono esposte a CSRF
+                    .csrf(csrf -> csrf
+                            .csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
+                            .csrfTokenRequestHandler(new CsrfTokenRequestAttributeHandler())
+                            .ignoringRequestMatchers("/api/auth/**", "/ws/**")
+                            .ignoringRequestMatchers(request -> request.getHeader(SecurityConstants.HEADER_STRING) != null))
+                    // Il token CSRF è caricato in modo lazy: lo forziamo così il cookie arriva anche alle pagine senza form
+                    .addFilterAfter((request, response, chain) -> {
+                        CsrfToken csrfToken = (CsrfToken) request.getAttribute(CsrfToken.class.getName());
+                        if (csrfToken != null) csrfToken.getToken();
+                        chain.doFilter(request, response);
+                    }, CsrfFilter.class);
+        } else {
+            http.csrf(AbstractHttpConfigurer::disable);
+        }
+
         http
-                .csrf(AbstractHttpConfigurer::disable)
             .authorizeHttpRequests(authz -> authz
                     .requestMatchers(
                             "/login",
@@ -37,24 +84,57 @@ public class SecurityConfig {
                             "/webjars/**",
                             "/ws/**",
                             "/topic/**",
-                            "/api/**").permitAll()
-                    .requestMatchers("/api/**").hasRole("ADMIN")  // Solo gli utenti con il ruolo "ADMIN" possono accedere
+                            "/actuator/health",
+                            "/api/auth/**",  // Login con JWT
+                            "/api/user/add").permitAll()  // Registrazione
+                    .requestMatchers(HttpMethod.GET, "/api/v1/**").permitAll()  // Letture pubbliche: stato, classifica, storico
+                    .requestMatchers("/actuator/prometheus").access((authentication, context) ->  // Admin o scraper con il token dedicato
+                            new AuthorizationDecision(isAdmin(authentication.get()) || hasScrapeToken(context.getRequest())))
+                    .requestMatchers("/actuator/**").hasRole("ADMIN")
+                    .requestMatchers("/api/admin/**").hasRole("ADMIN")  // Solo gli utenti con il ruolo "ADMIN" possono accedere
                     .requestMatchers("/add/**").hasAuthority("ROLE_ADMIN")// Permetti l'accesso alla pagina di login e registrazione
                     .anyRequest().authenticated()  // Richiedi l'autenticazione per tutte le altre richieste
             )
             .addFilterBefore(teamFilter, UsernamePasswordAuthenticationFilter.class)
-            .formLogin(form -> form
+            .formLogin(form -> {
+                form
                     .loginPage("/login")  // Imposta la pagina di login personalizzata
                     .loginProcessingUrl("/login") // URL per il login, di default è "/login"
                     .defaultSuccessUrl("/team", true) // Dopo il login, l'utente viene reindirizzato a /home
                     .failureUrl("/login?error=true") // Se il login fallisce, l'utente viene reindirizzato alla stessa pagina con un parametro di errore
-                    .permitAll()
-            )
-            .logout(LogoutConfigurer::permitAll);
+                    .permitAll();
+
+                if (stateless) {
+                    // Il login dal form restituisce il JWT in un cookie invece di salvarlo in sessione
+                    form.successHandler((request, response, authentication) -> {
+                        FantaPrincipal principal = (FantaPrincipal) authentication.getPrincipal();
+                        response.addCookie(tokenService.cookie(tokenService.issue(principal)));
+                        response.sendRedirect("/team");
+                    });
+                }
+            })
+            .logout(logout -> logout
+                    .deleteCookies(SecurityConstants.TOKEN_COOKIE)
+                    .permitAll());
 
         return http.build();
     }
 
+    private boolean isAdmin(Authentication authentication) {
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+
+    // Confronto a tempo costante; senza token configurato le metriche restano solo agli admin
+    private boolean hasScrapeToken(HttpServletRequest request) {
+        String header = request.getHeader(SecurityConstants.HEADER_STRING);
+        if (scrapeToken.isEmpty() || header == null || !header.startsWith(SecurityConstants.TOKEN_PREFIX)) {
+            return false;
+        }
+        byte[] token = header.substring(SecurityConstants.TOKEN_PREFIX.length()).getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(token, scrapeToken.getBytes(StandardCharsets.UTF_8));
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
         return http.getSharedObject(AuthenticationManagerBuilder.class)
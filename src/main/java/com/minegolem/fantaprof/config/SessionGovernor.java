@@ -0,0 +1,71 @@
+package com.minegolem.fantaprof.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limita il numero di sessioni WebSocket e conta quelle rifiutate o chiuse perché non stavano al passo.
+ * Le sessioni lente vengono chiuse da Spring (SESSION_NOT_RELIABLE) quando superano
+ * i limiti di tempo o di buffer di invio configurati in {@link WebSocketConfig}.
+ */
+@Slf4j
+@Component
+public class SessionGovernor implements WebSocketHandlerDecoratorFactory {
+
+    private final int maxSessions;
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final Counter rejected;
+    private final Counter evicted;
+    private final Counter transportErrors;
+
+    public SessionGovernor(MeterRegistry registry,
+                           @Value("${fantaprof.ws.max-sessions:20000}") int maxSessions) {
+        this.maxSessions = maxSessions;
+        registry.gauge("fantaprof.websocket.sessions.open", sessions);
+        this.rejected = registry.counter("fantaprof.websocket.sessions.rejected");
+        this.evicted = registry.counter("fantaprof.websocket.sessions.evicted");
+        this.transportErrors = registry.counter("fantaprof.websocket.sessions.transport-errors");
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                if (sessions.incrementAndGet() > maxSessions) {
+                    rejected.increment();
+                    session.close(CloseStatus.SERVICE_OVERLOAD);
+                    return;
+                }
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+                transportErrors.increment();
+                super.handleTransportError(session, exception);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.decrementAndGet();
+                if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                    evicted.increment();
+                    log.debug("WebSocket session {} evicted: {}", session.getId(), closeStatus);
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+}
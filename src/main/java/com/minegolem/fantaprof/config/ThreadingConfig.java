@@ -0,0 +1,39 @@
+package com.minegolem.fantaprof.config;
+
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// spring.threads.virtual.enabled letto a runtime, come in WebSocketConfig. Le @ConditionalOnThreading di Boot
+// nel contesto AOT restano fissate al valore del build (sempre false, vedi processAot in build.gradle):
+// senza questo customizer Tomcat resterebbe sui thread di piattaforma qualunque sia la proprietà all'avvio
+@Configuration
+public class ThreadingConfig {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (virtualThreads) {
+                protocolHandler.setExecutor(new VirtualThreadExecutor("tomcat-handler-"));
+            }
+        };
+    }
+
+    // Invio degli eventi SSE: un virtual thread per invio, altrimenti un pool fisso. Ogni client ha al più
+    // un invio in coda (i client occupati saltano il turno), quindi la coda è limitata da fantaprof.sse.max-clients
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService sseSenderExecutor(@Value("${fantaprof.sse.sender-threads:32}") int senderThreads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-sender-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(senderThreads, Thread.ofPlatform().name("sse-sender-", 0).daemon().factory());
+    }
+}
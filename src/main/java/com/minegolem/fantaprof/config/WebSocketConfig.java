@@ -1,23 +1,154 @@
 package com.minegolem.fantaprof.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // simple: broker in memoria, un solo nodo; relay: broker STOMP esterno per il fan-out, sempre un solo nodo;
+    // cluster: broker in memoria su ogni nodo, gli eventi di dominio passano tra i nodi (vedi ClusterConfig)
+    @Value("${fantaprof.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${fantaprof.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${fantaprof.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${fantaprof.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${fantaprof.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    // Stessa proprietà che sposta Tomcat sui virtual thread: i canali STOMP seguono la stessa modalità
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Heartbeat STOMP in entrambe le direzioni: i client spariti vengono chiusi senza aspettare il TCP
+    @Value("${fantaprof.ws.heartbeat:PT10S}")
+    private Duration heartbeat;
+
+    // Oltre questi limiti una sessione lenta viene chiusa invece di accumulare messaggi
+    @Value("${fantaprof.ws.send-time-limit:PT5S}")
+    private Duration sendTimeLimit;
+
+    @Value("${fantaprof.ws.send-buffer-size-limit:262144}")
+    private int sendBufferSizeLimit;
+
+    @Value("${fantaprof.ws.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${fantaprof.ws.inbound-threads:8}")
+    private int inboundThreads;
+
+    @Value("${fantaprof.ws.outbound-threads:16}")
+    private int outboundThreads;
+
+    @Value("${fantaprof.ws.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private final SessionGovernor sessionGovernor;
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    public WebSocketConfig(SessionGovernor sessionGovernor) {
+        this.sessionGovernor = sessionGovernor;
+    }
+
+    // Lazy: lo scheduler del broker è creato dalla stessa configurazione STOMP che usa questo configurer
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler messageBrokerTaskScheduler) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic");
+        if (!"simple".equals(brokerMode) && !"relay".equals(brokerMode) && !"cluster".equals(brokerMode)) {
+            throw new IllegalStateException("Unsupported fantaprof.broker.mode: " + brokerMode
+                    + " (expected simple, relay or cluster)");
+        }
+
+        if ("relay".equals(brokerMode)) {
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    .setSystemHeartbeatSendInterval(heartbeat.toMillis())
+                    .setSystemHeartbeatReceiveInterval(heartbeat.toMillis());
+        } else {
+            config.enableSimpleBroker("/topic", "/queue")
+                    .setHeartbeatValue(new long[]{heartbeat.toMillis(), heartbeat.toMillis()})
+                    .setTaskScheduler(messageBrokerTaskScheduler);
+        }
         config.setApplicationDestinationPrefixes("/app");
+        // /user/queue/team: messaggi personali agli utenti con il professore in squadra
+        config.setUserDestinationPrefix("/user");
+
+        if (virtualThreads) {
+            // Il broadcast lascia subito il thread della richiesta; l'ordine per sessione resta garantito
+            config.configureBrokerChannel().executor(new VirtualThreadTaskExecutor("ws-broker-"));
+            config.setPreservePublishOrder(true);
+        }
+    }
+
+    // Pool dimensionati per i thread di piattaforma; con i virtual thread il limite è dato dalle sessioni stesse
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.executor(new VirtualThreadTaskExecutor("ws-inbound-"));
+        } else {
+            registration.taskExecutor()
+                    .corePoolSize(inboundThreads)
+                    .maxPoolSize(inboundThreads)
+                    .queueCapacity(queueCapacity);
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.executor(new VirtualThreadTaskExecutor("ws-outbound-"));
+        } else {
+            registration.taskExecutor()
+                    .corePoolSize(outboundThreads)
+                    .maxPoolSize(outboundThreads)
+                    .queueCapacity(queueCapacity);
+        }
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit((int) sendTimeLimit.toMillis())
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .setTimeToFirstMessage((int) heartbeat.multipliedBy(3).toMillis())
+                .addDecoratorFactory(sessionGovernor);
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
-        registry.addEndpoint("/ws").withSockJS();
+        registry.addEndpoint("/ws")
+                .withSockJS()
+                .setHeartbeatTime(heartbeat.toMillis())
+                .setDisconnectDelay(heartbeat.multipliedBy(2).toMillis());
     }
 }
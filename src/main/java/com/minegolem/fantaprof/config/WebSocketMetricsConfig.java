@@ -0,0 +1,68 @@
+package com.minegolem.fantaprof.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Connessioni/disconnessioni STOMP e messaggi in entrata/uscita per tipo;
+// il gauge delle sessioni aperte è in SessionGovernor
+@Configuration
+public class WebSocketMetricsConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final MeterRegistry registry;
+    private final Counter connects;
+    private final Counter disconnects;
+    private final Map<String, Counter> messageCounters = new ConcurrentHashMap<>();
+
+    public WebSocketMetricsConfig(MeterRegistry registry) {
+        this.registry = registry;
+        this.connects = registry.counter("fantaprof.websocket.sessions.connected");
+        this.disconnects = registry.counter("fantaprof.websocket.sessions.disconnected");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(countingInterceptor("in"));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(countingInterceptor("out"));
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        connects.increment();
+    }
+
+    @EventListener
+    public void onDisconnected(SessionDisconnectEvent event) {
+        disconnects.increment();
+    }
+
+    private ChannelInterceptor countingInterceptor(String direction) {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+                String name = type != null ? type.name() : "OTHER";
+                messageCounters.computeIfAbsent(direction + ":" + name, key -> registry.counter(
+                        "fantaprof.websocket.messages", "direction", direction, "type", name)).increment();
+                return message;
+            }
+        };
+    }
+}
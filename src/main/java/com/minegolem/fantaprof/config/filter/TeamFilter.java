@@ -2,6 +2,7 @@ package com.minegolem.fantaprof.config.filter;
 
 import com.minegolem.fantaprof.service.TeamService;
 import com.minegolem.fantaprof.service.UserService;
+import com.minegolem.fantaprof.utils.FantaPrincipal;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
@@ -9,6 +10,7 @@ import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -33,10 +35,12 @@ public class TeamFilter extends GenericFilterBean {
 
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-            if (authentication != null && authentication.isAuthenticated()) {
-                String username = authentication.getName();
+            if (authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken)) {
+                FantaPrincipal principal = userService.currentPrincipal(authentication);
 
-                if (teamService.hasUserATeam(userService.getUserByUsername(username).getId())) {
+                // Il principal sa già se l'utente ha una squadra; altrimenti basta una query per id
+                if (principal.hasTeam() || teamService.hasUserATeam(principal.getUserId())) {
                     httpResponse.sendRedirect("/team");
 
                     return;
@@ -1,14 +1,23 @@
 package com.minegolem.fantaprof.controller;
 
 import com.minegolem.fantaprof.repository.database.Professor;
+import com.minegolem.fantaprof.service.HistoryService;
 import com.minegolem.fantaprof.service.ProfessorService;
+import com.minegolem.fantaprof.service.ScoringRuleRegistry;
+import com.minegolem.fantaprof.utils.dto.LeaderboardEventDTO;
+import com.minegolem.fantaprof.utils.dto.MatchdayDTO;
+import com.minegolem.fantaprof.utils.dto.ScoreEntryDTO;
+import com.minegolem.fantaprof.utils.dto.ScoringRulesDTO;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.security.Principal;
+import java.util.List;
 
 
 @Controller
@@ -17,7 +26,8 @@ import org.springframework.web.bind.annotation.*;
 public class AdminController {
 
     private final ProfessorService professorService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ScoringRuleRegistry scoringRuleRegistry;
+    private final HistoryService historyService;
 
     @PostMapping("/add")
     public String addProfessor(@RequestParam("name") String name,
@@ -27,29 +37,76 @@ public class AdminController {
         Professor professor = new Professor(name, cost, 0);
 
         model.addAttribute("professor", professor);
-        professorService.addProfessor(professor);
-
-        messagingTemplate.convertAndSend("/topic/orders/save", name);
+        professorService.addProfessor(professor).join();
 
         return "redirect:../.././add";
     }
 
     @DeleteMapping("/delete/{id}")
     public String deleteOrder(@PathVariable Long id) {
-        professorService.deleteProfessor(id);
-
-        messagingTemplate.convertAndSend("/topic/orders/delete", id);
+        professorService.deleteProfessor(id).join();
 
         return "redirect:../.././add";
     }
 
-    @RequestMapping(value = "/modifyscore/{id}/{score}", method = RequestMethod.PUT)
-    public String modifyScore(@PathVariable Long id, @PathVariable int score) {
-        int currentScore = professorService.getScoreById(id);
-        currentScore += score;
-        professorService.updateScoreById(id, currentScore);
+    @RequestMapping(value = "/modifyscore/{id}/{ruleKey}", method = RequestMethod.PUT)
+    @ResponseBody
+    public ResponseEntity<String> modifyScore(@PathVariable Long id, @PathVariable String ruleKey, Principal principal) {
+        ScoreEntryDTO entry = new ScoreEntryDTO(id, ruleKey, null);
+        try {
+            professorService.applyScoreEntries(List.of(entry), adminName(principal)).join();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+
+        return ResponseEntity.ok(id.toString());
+    }
+
+    @PostMapping("/scores")
+    public ResponseEntity<?> modifyScores(@RequestBody List<ScoreEntryDTO> entries, Principal principal) {
+        if (entries == null || entries.isEmpty()) {
+            return ResponseEntity.badRequest().body("No score entries");
+        }
+
+        LeaderboardEventDTO event;
+        try {
+            event = professorService.applyScoreEntries(entries, adminName(principal)).join();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+
+        return ResponseEntity.ok(event);
+    }
+
+    @GetMapping("/rules")
+    public ResponseEntity<ScoringRulesDTO> rules(WebRequest request) {
+        ScoringRulesDTO rules = scoringRuleRegistry.getRules();
+        if (request.checkNotModified(rules.getETag())) {
+            return null;
+        }
+
+        return ResponseEntity.ok().eTag(rules.getETag()).body(rules);
+    }
+
+    @PostMapping("/rules/reload")
+    public ResponseEntity<?> reloadRules() {
+        ScoringRulesDTO rules;
+        try {
+            rules = scoringRuleRegistry.reload();
+        } catch (IllegalArgumentException e) {
+            // File non valido (ad esempio chiave duplicata): resta in uso il catalogo precedente
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return ResponseEntity.ok().eTag(rules.getETag()).body(rules);
+    }
+
+    // Fine giornata: salva i punteggi correnti nello storico
+    @PostMapping("/matchdays/close")
+    public ResponseEntity<MatchdayDTO> closeMatchday(Principal principal) {
+        return ResponseEntity.ok(historyService.closeMatchday(adminName(principal)));
+    }
 
-        messagingTemplate.convertAndSend("/topic/orders/modifyScore", id);
-        return id.toString();
+    private static String adminName(Principal principal) {
+        return principal != null ? principal.getName() : null;
     }
 }
@@ -1,23 +1,24 @@
 package com.minegolem.fantaprof.controller;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
+import com.minegolem.fantaprof.repository.TeamRepository;
 import com.minegolem.fantaprof.repository.UserRepository;
 import com.minegolem.fantaprof.repository.database.User;
-import com.minegolem.fantaprof.utils.SecurityConstants;
+import com.minegolem.fantaprof.utils.FantaPrincipal;
+import com.minegolem.fantaprof.utils.JWTTokenService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Date;
-
 @RestController
 @AllArgsConstructor
 @RequestMapping("/api/auth")
 public class AuthController {
 
     private final UserRepository userRepository;
+    private final TeamRepository teamRepository;
+    private final JWTTokenService tokenService;
 
     @GetMapping("/version")
     public String version() {
@@ -25,7 +26,7 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<?> login(@RequestBody LoginRequest request, HttpServletResponse response) {
         var userOpt = userRepository.findByUsername(request.getUsername());
 
         if (userOpt.isEmpty()) {
@@ -38,11 +39,9 @@ public class AuthController {
             return ResponseEntity.status(401).body(new ErrorResponse("Invalid credentials"));
         }
 
-        String token = JWT.create()
-                .withSubject(user.getUsername())
-                .withClaim("role", user.getRole())
-                .withExpiresAt(new Date(System.currentTimeMillis() + SecurityConstants.EXPIRATION_TIME))
-                .sign(Algorithm.HMAC512(SecurityConstants.SECRET.getBytes()));
+        String token = tokenService.issue(new FantaPrincipal(user.getId(), user.getUsername(), user.getRole(),
+                teamRepository.findTeamNameByUserId(user.getId())));
+        response.addCookie(tokenService.cookie(token));
 
         return ResponseEntity.ok(new LoginResponse(token, user.getUsername(), user.getRole()));
     }
@@ -0,0 +1,56 @@
+package com.minegolem.fantaprof.controller;
+
+import com.minegolem.fantaprof.service.HistoryService;
+import com.minegolem.fantaprof.utils.dto.HistoryPointDTO;
+import com.minegolem.fantaprof.utils.dto.MatchdayDTO;
+import com.minegolem.fantaprof.utils.dto.StandingsDTO;
+import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/api/v1/history")
+public class HistoryController {
+
+    private final HistoryService historyService;
+
+    @GetMapping("/matchdays")
+    public List<MatchdayDTO> matchdays() {
+        return historyService.getMatchdays();
+    }
+
+    // Classifica a fine giornata (round) oppure all'ultima giornata chiusa prima di un istante (at)
+    @GetMapping("/standings")
+    public ResponseEntity<StandingsDTO> standings(@RequestParam(required = false) Integer round,
+                                                  @RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        if (round == null && at == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.of(round != null
+                ? historyService.getStandings(round)
+                : historyService.getStandingsAt(at));
+    }
+
+    @GetMapping("/professors/{id}")
+    public List<HistoryPointDTO> professorHistory(@PathVariable Long id,
+                                                  @RequestParam(defaultValue = "1") int from,
+                                                  @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int to,
+                                                  @RequestParam(defaultValue = "100") int points) {
+        return historyService.getProfessorHistory(id, from, to, points);
+    }
+
+    @GetMapping("/teams/{id}")
+    public List<HistoryPointDTO> teamHistory(@PathVariable Long id,
+                                             @RequestParam(defaultValue = "1") int from,
+                                             @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int to,
+                                             @RequestParam(defaultValue = "100") int points) {
+        return historyService.getTeamHistory(id, from, to, points);
+    }
+}
@@ -1,38 +1,72 @@
 package com.minegolem.fantaprof.controller;
 
-import com.minegolem.fantaprof.service.ProfessorService;
+import com.minegolem.fantaprof.service.FragmentCache;
+import com.minegolem.fantaprof.service.LeaderboardStreamService;
 import com.minegolem.fantaprof.service.TeamService;
 import com.minegolem.fantaprof.service.UserService;
+import com.minegolem.fantaprof.utils.dto.LeaderboardPageDTO;
+import com.minegolem.fantaprof.utils.dto.TeamRankDTO;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Controller
 @RequestMapping("/leaderboard")
 @RequiredArgsConstructor
 public class LeaderBoardController {
 
+    static final int PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    static final int NEIGHBOURS = 2;
+
     private final TeamService teamService;
-    private final ProfessorService professorService;
     private final UserService userService;
+    private final LeaderboardStreamService leaderboardStreamService;
+    private final FragmentCache fragmentCache;
 
     @GetMapping
-    public String getLeaderboard(Model model) {
-        Map<String, Integer> scoreMap = teamService.getTeamScores();
-
-        // Ordina la classifica per punteggio (decrescente)
-        List<Map.Entry<String, Integer>> leaderboard = new ArrayList<>(scoreMap.entrySet());
-        leaderboard.sort((e1, e2) -> Integer.compare(e2.getValue(), e1.getValue()));
+    public String getLeaderboard(@RequestParam(defaultValue = "0") int page,
+                                 Authentication authentication,
+                                 Model model) {
+        // Solo la pagina richiesta, già ordinata per punteggio (decrescente)
+        LeaderboardPageDTO leaderboard = teamService.getLeaderboardPage(Math.max(0, page), PAGE_SIZE);
 
-        // Aggiungi la classifica al modello
-        model.addAttribute("leaderboard", leaderboard);
+        model.addAttribute("leaderboardRows", fragmentCache.leaderboardRows(leaderboard));
+        model.addAttribute("page", leaderboard);
+        model.addAttribute("version", leaderboard.getVersion());
+        model.addAttribute("myRank", myRank(authentication, NEIGHBOURS));
 
         return "leaderboard";
     }
+
+    // Posizione della squadra dell'utente corrente e le squadre vicine
+    @GetMapping("/me")
+    public ResponseEntity<TeamRankDTO> me(@RequestParam(defaultValue = "" + NEIGHBOURS) int radius,
+                                          Authentication authentication) {
+        TeamRankDTO rank = myRank(authentication, Math.min(Math.max(0, radius), MAX_PAGE_SIZE));
+        return rank != null ? ResponseEntity.ok(rank) : ResponseEntity.notFound().build();
+    }
+
+    // Per schermi e proiettori: evento "snapshot" iniziale, poi eventi "delta" accorpati
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream() {
+        try {
+            return ResponseEntity.ok(leaderboardStreamService.subscribe());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    private TeamRankDTO myRank(Authentication authentication, int radius) {
+        Long userId = userService.currentPrincipal(authentication).getUserId();
+        return teamService.getTeamRank(userId, radius).orElse(null);
+    }
 }
@@ -0,0 +1,56 @@
+package com.minegolem.fantaprof.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minegolem.fantaprof.service.ScoreEventService;
+import com.minegolem.fantaprof.utils.dto.LeaderboardEventDTO;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/api/admin/events")
+public class ScoreEventController {
+
+    private final ScoreEventService scoreEventService;
+    private final ObjectMapper objectMapper;
+
+    // Replay in streaming (una riga JSON per evento) a partire dall'evento successivo a "from"
+    @GetMapping(produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> replay(@RequestParam(value = "from", defaultValue = "0") long from) {
+        StreamingResponseBody body = out -> scoreEventService.replay(from, event -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(event));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    @GetMapping("/scores")
+    public Map<Long, Integer> rebuiltScores() {
+        return scoreEventService.rebuildScores();
+    }
+
+    @PostMapping("/snapshot")
+    public ResponseEntity<Void> snapshot() {
+        scoreEventService.snapshotNow();
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/restore")
+    public LeaderboardEventDTO restore() {
+        return scoreEventService.restoreScores().join();
+    }
+}
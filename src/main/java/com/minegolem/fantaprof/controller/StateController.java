@@ -0,0 +1,67 @@
+package com.minegolem.fantaprof.controller;
+
+import com.minegolem.fantaprof.service.LeaderboardService;
+import com.minegolem.fantaprof.service.ProfessorService;
+import com.minegolem.fantaprof.service.TeamService;
+import com.minegolem.fantaprof.utils.dto.LeaderboardPageDTO;
+import com.minegolem.fantaprof.utils.dto.LeaderboardStateDTO;
+import com.minegolem.fantaprof.utils.dto.ProfessorCatalogDTO;
+import com.minegolem.fantaprof.utils.dto.StateDTO;
+import com.minegolem.fantaprof.utils.dto.TeamRankDTO;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Map;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/api/v1")
+public class StateController {
+
+    private final LeaderboardService leaderboardService;
+    private final ProfessorService professorService;
+    private final TeamService teamService;
+
+    // Stato iniziale per i client: gli eventi successivi con versione maggiore sono delta da applicare
+    @GetMapping("/state")
+    public StateDTO state() {
+        LeaderboardStateDTO leaderboard = leaderboardService.getState();
+        return new StateDTO(leaderboard.getVersion(), professorService.getAllProfessors(), leaderboard.getLeaderboard());
+    }
+
+    // Classifica paginata (page 0-based)
+    @GetMapping("/leaderboard")
+    public LeaderboardPageDTO leaderboard(@RequestParam(defaultValue = "0") int page,
+                                          @RequestParam(defaultValue = "50") int size) {
+        return teamService.getLeaderboardPage(Math.max(0, page), Math.min(Math.max(1, size), 200));
+    }
+
+    @GetMapping("/leaderboard/teams/{teamId}")
+    public ResponseEntity<TeamRankDTO> teamRank(@PathVariable Long teamId,
+                                                @RequestParam(defaultValue = "2") int radius) {
+        return ResponseEntity.of(teamService.getTeamRank(teamId, Math.min(Math.max(0, radius), 200)));
+    }
+
+    @GetMapping("/professors")
+    public ResponseEntity<ProfessorCatalogDTO> professors(WebRequest request) {
+        ProfessorCatalogDTO catalog = professorService.getCatalog();
+        String etag = "\"" + catalog.getVersion() + "\"";
+
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok().eTag(etag).body(catalog);
+    }
+
+    @GetMapping("/professors/stats")
+    public Map<String, Long> professorCacheStats() {
+        return professorService.getCatalogStats();
+    }
+}
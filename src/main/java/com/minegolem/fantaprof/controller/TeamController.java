@@ -1,14 +1,19 @@
 package com.minegolem.fantaprof.controller;
 
-import com.minegolem.fantaprof.repository.database.Professor;
 import com.minegolem.fantaprof.repository.database.Team;
+import com.minegolem.fantaprof.service.FragmentCache;
 import com.minegolem.fantaprof.service.ProfessorService;
 import com.minegolem.fantaprof.service.TeamService;
 import com.minegolem.fantaprof.service.UserService;
+import com.minegolem.fantaprof.utils.FantaPrincipal;
+import com.minegolem.fantaprof.utils.JWTTokenService;
+import com.minegolem.fantaprof.utils.dto.ProfessorCatalogDTO;
+import com.minegolem.fantaprof.utils.dto.TeamPageDTO;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -26,49 +31,32 @@ public class TeamController {
     private final TeamService teamService;
     private final ProfessorService professorService;
     private final UserService userService;
+    private final JWTTokenService tokenService;
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final FragmentCache fragmentCache;
 
     @GetMapping("/creasquadra")
     public String creaTeam(Model model) {
-        List<Professor> professorsList = professorService.getAllProfessors();
-        model.addAttribute("professors", professorsList);
+        ProfessorCatalogDTO catalog = professorService.getCatalog();
+        model.addAttribute("professorRows", fragmentCache.draftProfessorRows(catalog));
+        model.addAttribute("catalogVersion", catalog.getVersion());
         return "CreaSquadra";
     }
 
     @GetMapping("/team")
-    public String team(Model model) {
-        Long userId = userService.getUserByUsername(getCurrentUsername()).getId();
+    public String team(Authentication authentication, Model model) {
+        Long userId = userService.currentPrincipal(authentication).getUserId();
 
-        String teamName = teamService.findNameByUserId(userId);
+        TeamPageDTO teamPage = teamService.getTeamPage(userId);
+        model.addAttribute("professors", teamPage.getMembers());
 
-        List<Professor> professorsList = teamService.getTeamProfessors(userId);
-
-        Long teamCaptain = teamService.getTeam(userId).stream()
-                .filter(Team::isCaptain)
-                .map(Team::getProfId)
-                .findFirst()
-                .orElse(null);
-
-        if (teamName == null || teamName.isBlank()) {
-            model.addAttribute("professors", professorsList);
+        if (teamPage.getName() == null || teamPage.getName().isBlank()) {
             return "team";
         }
 
-        model.addAttribute("professors", professorsList);
-        model.addAttribute("teamName", teamName);
-
-        int totalScore = professorsList.stream()
-                .mapToInt(professor -> {
-                    if (professor.getId().equals(teamCaptain)) {
-                        return professor.getScore() * 2;
-                    } else {
-                        return professor.getScore();
-                    }
-                })
-                .sum();
-        model.addAttribute("totalScore", totalScore);
-        model.addAttribute("teamCaptain", teamCaptain);
+        model.addAttribute("teamName", teamPage.getName());
+        model.addAttribute("totalScore", teamPage.getTotal());
+        model.addAttribute("teamCaptain", teamPage.getCaptainId());
 
         return "team";
     }
@@ -78,27 +66,46 @@ public class TeamController {
     public String addTeam(@RequestParam("name") String name,
                           @RequestParam("selectedItems") List<Long> selectedItems,
                           @RequestParam("capitanoId") String capitanoId,
+                          Authentication authentication,
+                          HttpServletResponse response,
                           Model model) {
 
         Long captainId = Long.valueOf(capitanoId.replaceAll("capitano_", "").replaceAll(",", ""));
 
-        Long userId = userService.getUserByUsername(getCurrentUsername()).getId();
-
-        selectedItems.forEach(item -> {
-            Team team = new Team(name, userId, item, captainId.equals(item));
-            teamService.addTeam(team);
-        });
+        FantaPrincipal principal = userService.currentPrincipal(authentication);
+        Long userId = principal.getUserId();
+
+        // Un professore selezionato due volte nello stesso form conta una volta sola
+        List<Team> members = selectedItems.stream()
+                .distinct()
+                .map(item -> new Team(name, userId, item, captainId.equals(item)))
+                .toList();
+
+        try {
+            teamService.createTeam(userId, members).join();
+        } catch (IllegalStateException e) {
+            // Squadra già creata (ad esempio doppio invio del form)
+            return "redirect:/team";
+        } catch (DataIntegrityViolationException e) {
+            // Solo il vincolo utente-professore indica un invio doppio; gli altri errori di integrità risalgono
+            if (!violates(e, Team.UK_USER_PROF)) {
+                throw e;
+            }
+            return "redirect:/team";
+        }
 
-        messagingTemplate.convertAndSend("/topic/orders/creaSquadra", "ok");
+        principal.setTeamName(name);
+        userService.invalidate(principal.getUsername());
+        // In modalità stateless il nome della squadra viaggia nel token: va riemesso
+        tokenService.reissue(principal, response);
 
         return "redirect:/creasquadra";
     }
 
-    public String getCurrentUsername() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null) {
-            return authentication.getName();
-        }
-        return null;
+    // MySQL riporta il vincolo come "teams.uk_teams_user_prof"
+    private static boolean violates(DataIntegrityViolationException e, String constraint) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase().endsWith(constraint);
     }
 }
@@ -0,0 +1,20 @@
+package com.minegolem.fantaprof.repository;
+
+import com.minegolem.fantaprof.repository.database.LeaderboardVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface LeaderboardVersionRepository extends JpaRepository<LeaderboardVersion, Integer> {
+
+    @Modifying
+    @Query("update LeaderboardVersion v set v.version = v.version + 1 where v.id = " + LeaderboardVersion.ROW)
+    int increment();
+
+    @Query("select v.version from LeaderboardVersion v where v.id = " + LeaderboardVersion.ROW)
+    Optional<Long> findCurrent();
+}
@@ -0,0 +1,19 @@
+package com.minegolem.fantaprof.repository;
+
+import com.minegolem.fantaprof.repository.database.Matchday;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MatchdayRepository extends JpaRepository<Matchday, Long> {
+
+    List<Matchday> findAllByOrderByRoundAsc();
+
+    List<Matchday> findByRoundGreaterThanOrderByRoundAsc(int round);
+
+    @Query("select coalesce(max(m.round), 0) from Matchday m")
+    int findLastRound();
+}
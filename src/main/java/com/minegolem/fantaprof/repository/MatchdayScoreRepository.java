@@ -0,0 +1,15 @@
+package com.minegolem.fantaprof.repository;
+
+import com.minegolem.fantaprof.repository.database.MatchdayScore;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MatchdayScoreRepository extends JpaRepository<MatchdayScore, Long> {
+
+    List<MatchdayScore> findAllByOrderByRoundAsc();
+
+    List<MatchdayScore> findByRoundGreaterThanOrderByRoundAsc(int round);
+}
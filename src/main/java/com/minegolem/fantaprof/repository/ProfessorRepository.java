@@ -1,11 +1,39 @@
 package com.minegolem.fantaprof.repository;
 
 import com.minegolem.fantaprof.repository.database.Professor;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ProfessorRepository extends JpaRepository<Professor, Long> {
 
+    @Modifying(clearAutomatically = true)
+    @Query("update Professor p set p.score = p.score + :delta where p.id = :id")
+    int incrementScore(@Param("id") Long id, @Param("delta") int delta);
+
+    // I lock sulle righe dei professori si prendono sempre prima di quelli sugli utenti, in ordine crescente di id
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Professor p where p.id = :id")
+    Optional<Professor> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Professor p order by p.id")
+    List<Professor> findAllForUpdate();
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select p from Professor p order by p.id")
+    List<Professor> findAllForShare();
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select p from Professor p where p.id in :ids order by p.id")
+    List<Professor> lockAllForShare(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,13 @@
+package com.minegolem.fantaprof.repository;
+
+import com.minegolem.fantaprof.repository.database.ScoreEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ScoreEventRepository extends JpaRepository<ScoreEvent, Long>, ScoreEventStreaming {
+
+    @Query("select max(e.id) from ScoreEvent e")
+    Long findLastId();
+}
@@ -0,0 +1,11 @@
+package com.minegolem.fantaprof.repository;
+
+import com.minegolem.fantaprof.repository.database.ScoreEvent;
+
+import java.util.stream.Stream;
+
+public interface ScoreEventStreaming {
+
+    // Eventi con id in (fromId, toId], in ordine, letti in streaming
+    Stream<ScoreEvent> streamRange(long fromId, long toId);
+}
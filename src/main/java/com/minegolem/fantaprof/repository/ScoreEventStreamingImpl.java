@@ -0,0 +1,51 @@
+package com.minegolem.fantaprof.repository;
+
+import com.minegolem.fantaprof.repository.database.ScoreEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+// Il fetch size per lo streaming dipende dal driver, quindi si sceglie in base al dialetto
+public class ScoreEventStreamingImpl implements ScoreEventStreaming {
+
+    // Con MySQL Connector/J le righe arrivano una alla volta solo con Integer.MIN_VALUE;
+    // gli altri driver (H2 compreso) rifiutano un valore negativo e usano un fetch size normale
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    private static final int FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Integer fetchSize;
+
+    @Override
+    public Stream<ScoreEvent> streamRange(long fromId, long toId) {
+        return entityManager.createQuery(
+                        "select e from ScoreEvent e where e.id > :fromId and e.id <= :toId order by e.id", ScoreEvent.class)
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId)
+                .setHint(HINT_FETCH_SIZE, fetchSize())
+                .setHint(HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private int fetchSize() {
+        Integer current = fetchSize;
+        if (current == null) {
+            Dialect dialect = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect();
+            current = dialect instanceof MySQLDialect ? MYSQL_STREAMING_FETCH_SIZE : FETCH_SIZE;
+            fetchSize = current;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,17 @@
+package com.minegolem.fantaprof.repository;
+
+import com.minegolem.fantaprof.repository.database.ScoreSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ScoreSnapshotRepository extends JpaRepository<ScoreSnapshot, Long> {
+
+    @Query("select max(s.lastEventId) from ScoreSnapshot s")
+    Long findLastEventId();
+
+    List<ScoreSnapshot> findByLastEventId(Long lastEventId);
+}
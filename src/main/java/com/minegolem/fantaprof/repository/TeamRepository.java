@@ -1,8 +1,10 @@
 package com.minegolem.fantaprof.repository;
 
 import com.minegolem.fantaprof.repository.database.Team;
+import com.minegolem.fantaprof.utils.dto.TeamMemberDTO;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +14,17 @@ import java.util.Optional;
 public interface TeamRepository extends JpaRepository<Team, Long> {
     Optional<List<Team>> findByUserId(Long userId);
 
+    boolean existsByUserId(Long userId);
+
+    @Query("select min(t.name) from Team t where t.userId = :userId")
+    String findTeamNameByUserId(@Param("userId") Long userId);
+
+    // Nome squadra, capitano e professori in una sola query
+    @Query("select new com.minegolem.fantaprof.utils.dto.TeamMemberDTO(t.name, t.captain, p.id, p.name, p.cost, p.score) " +
+            "from Team t join Professor p on p.id = t.profId where t.userId = :userId order by t.id")
+    List<TeamMemberDTO> findMembersByUserId(@Param("userId") Long userId);
+
+    @Query("select count(distinct t.userId) from Team t")
+    long countTeams();
+
 }
@@ -1,12 +1,72 @@
 package com.minegolem.fantaprof.repository;
 
 import com.minegolem.fantaprof.repository.database.User;
+import com.minegolem.fantaprof.utils.TeamScoring;
+import com.minegolem.fantaprof.utils.dto.TeamScoreDTO;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
-}
\ No newline at end of file
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from User u where u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") Long id);
+
+    // Punti di un professore riportati sul totale di ogni squadra che lo contiene.
+    // I punti per capitano e gregario arrivano già calcolati da TeamScoring: la regola resta in un solo posto
+    default int addProfessorPoints(Long professorId, long delta) {
+        return addProfessorPoints(professorId, TeamScoring.memberScore(delta, true), TeamScoring.memberScore(delta, false));
+    }
+
+    // Subquery correlate invece di UPDATE ... JOIN: stessa istruzione su MySQL e su H2
+    @Modifying(clearAutomatically = true)
+    @Query("update User u set u.scoreTot = u.scoreTot + " +
+            "(select case when t.captain = true then :captainPoints else :points end from Team t where t.userId = u.id and t.profId = :professorId) " +
+            "where u.id in (select t.userId from Team t where t.profId = :professorId)")
+    int addProfessorPoints(@Param("professorId") Long professorId,
+                           @Param("captainPoints") long captainPoints,
+                           @Param("points") long points);
+
+    default int recomputeScoreTot(Long userId) {
+        return recomputeScoreTot(userId, TeamScoring.CAPTAIN_MULTIPLIER);
+    }
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.scoreTot = coalesce((select sum(case when t.captain = true then :captainMultiplier * p.score else p.score end) " +
+            "from Team t join Professor p on p.id = t.profId where t.userId = u.id), 0) where u.id = :userId")
+    int recomputeScoreTot(@Param("userId") Long userId, @Param("captainMultiplier") int captainMultiplier);
+
+    // Ricalcolo completo (backfill su richiesta, ripristino dal registro eventi)
+    default int recomputeAllScoreTots() {
+        return recomputeAllScoreTots(TeamScoring.CAPTAIN_MULTIPLIER);
+    }
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.scoreTot = coalesce((select sum(case when t.captain = true then :captainMultiplier * p.score else p.score end) " +
+            "from Team t join Professor p on p.id = t.profId where t.userId = u.id), 0)")
+    int recomputeAllScoreTots(@Param("captainMultiplier") int captainMultiplier);
+
+    // Classifica dal database: una sola query sull'indice (score_tot desc, id). A parità di punti vince l'id
+    // minore, come nella classifica in memoria (TeamScoring.RANKING_ORDER)
+    @Query("select new com.minegolem.fantaprof.utils.dto.TeamScoreDTO(u.id, (select min(t.name) from Team t where t.userId = u.id), u.scoreTot) " +
+            "from User u where exists (select 1 from Team t where t.userId = u.id) " +
+            "order by u.scoreTot desc, u.id limit :limit offset :offset")
+    List<TeamScoreDTO> findRanking(@Param("offset") int offset, @Param("limit") int limit);
+
+    // Squadre davanti a quella con il punteggio e l'id dati, nello stesso ordine di findRanking
+    @Query("select count(u) from User u where (u.scoreTot > :score or (u.scoreTot = :score and u.id < :userId)) " +
+            "and exists (select 1 from Team t where t.userId = u.id)")
+    long countAhead(@Param("score") long score, @Param("userId") Long userId);
+}
@@ -1,26 +1,42 @@
 package com.minegolem.fantaprof.repository.converter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.minegolem.fantaprof.repository.database.User;
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 
+/**
+ * Formato della colonna: {@code "1$" + Base64(Smile)}.
+ * Le righe senza header sono quelle legacy ({@code Base64(JSON)}) e vengono ancora lette.
+ */
 @Converter(autoApply = true)
 public class UserBase64Converter implements AttributeConverter<User, String> {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    static final String VERSION_HEADER = "1$";
+
+    // Reader e writer sono immutabili e thread-safe: costruiti una volta sola
+    private static final ObjectWriter SMILE_WRITER = new ObjectMapper(new SmileFactory()).writerFor(User.class);
+    private static final ObjectReader SMILE_READER = new ObjectMapper(new SmileFactory()).readerFor(User.class);
+    private static final ObjectReader JSON_READER = new ObjectMapper().readerFor(User.class);
+
+    private static final Base64.Encoder ENCODER = Base64.getEncoder();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
 
     @Override
     public String convertToDatabaseColumn(User user) {
+        if (user == null) {
+            return null;
+        }
+
         try {
-            if (user == null) {
-                return null;
-            }
-            // Serializza l'oggetto in JSON
-            String json = objectMapper.writeValueAsString(user);
-            // Codifica in Base64
-            return Base64.getEncoder().encodeToString(json.getBytes());
+            return VERSION_HEADER + ENCODER.encodeToString(SMILE_WRITER.writeValueAsBytes(user));
         } catch (Exception e) {
             throw new RuntimeException("Errore nella serializzazione dell'utente", e);
         }
@@ -28,17 +44,24 @@ public class UserBase64Converter implements AttributeConverter<User, String> {
 
     @Override
     public User convertToEntityAttribute(String dbData) {
+        if (dbData == null || dbData.isEmpty()) {
+            return null;
+        }
+
         try {
-            if (dbData == null || dbData.isEmpty()) {
-                return null;
+            // Il Base64 è ASCII: una sola copia in byte, poi decodifica senza passare da String
+            byte[] ascii = dbData.getBytes(StandardCharsets.ISO_8859_1);
+
+            if (dbData.startsWith(VERSION_HEADER)) {
+                ByteBuffer smile = DECODER.decode(ByteBuffer.wrap(ascii, VERSION_HEADER.length(),
+                        ascii.length - VERSION_HEADER.length()));
+                return SMILE_READER.readValue(smile.array(), smile.arrayOffset() + smile.position(), smile.remaining());
             }
-            // Decodifica da Base64
-            String json = new String(Base64.getDecoder().decode(dbData));
-            // Deserializza in User
-            return objectMapper.readValue(json, User.class);
+
+            // Righe legacy: Base64 di JSON in UTF-8
+            return JSON_READER.readValue(DECODER.decode(ascii));
         } catch (Exception e) {
             throw new RuntimeException("Errore nella deserializzazione dell'utente", e);
         }
     }
 }
-
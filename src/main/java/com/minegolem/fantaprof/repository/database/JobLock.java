@@ -0,0 +1,26 @@
+package com.minegolem.fantaprof.repository.database;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+
+// Una riga per job periodico: il lock sulla riga decide quale nodo lo esegue
+@Entity
+@Table(name = "job_locks")
+public class JobLock {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    private LocalDateTime lastRunAt;
+}
@@ -0,0 +1,25 @@
+package com.minegolem.fantaprof.repository.database;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+
+// Riga unica con la versione della classifica letta dal database, condivisa tra i nodi
+@Entity
+@Table(name = "leaderboard_version")
+public class LeaderboardVersion {
+
+    public static final int ROW = 1;
+
+    @Id
+    private Integer id;
+
+    private long version;
+}
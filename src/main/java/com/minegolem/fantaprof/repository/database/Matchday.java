@@ -0,0 +1,39 @@
+package com.minegolem.fantaprof.repository.database;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+
+@Entity
+@Table(name = "matchdays", uniqueConstraints = @UniqueConstraint(name = "uk_matchdays_round", columnNames = "round"))
+public class Matchday {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private int round;
+
+    @Column(nullable = false)
+    private LocalDateTime closedAt;
+
+    // Ultimo evento del registro punteggi incluso nella giornata
+    private Long lastEventId;
+
+    private String admin;
+
+    public Matchday(int round, LocalDateTime closedAt, Long lastEventId, String admin) {
+        this.round = round;
+        this.closedAt = closedAt;
+        this.lastEventId = lastEventId;
+        this.admin = admin;
+    }
+}
@@ -0,0 +1,51 @@
+package com.minegolem.fantaprof.repository.database;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+
+@Entity
+@Table(name = "matchday_scores",
+        indexes = @Index(name = "idx_matchday_scores_subject", columnList = "subjectType, subjectId, round"))
+public class MatchdayScore {
+
+    public enum SubjectType {
+        PROFESSOR,
+        TEAM
+    }
+
+    // Sequenza con allocationSize 50: gli snapshot di una giornata vengono inseriti in batch
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "matchday_scores_seq")
+    @SequenceGenerator(name = "matchday_scores_seq", sequenceName = "matchday_scores_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private int round;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private SubjectType subjectType;
+
+    // Id del professore, oppure id dell'utente proprietario della squadra
+    @Column(nullable = false)
+    private Long subjectId;
+
+    // Nome della squadra alla chiusura della giornata (null per i professori)
+    private String name;
+
+    private long score;
+
+    public MatchdayScore(int round, SubjectType subjectType, Long subjectId, String name, long score) {
+        this.round = round;
+        this.subjectType = subjectType;
+        this.subjectId = subjectId;
+        this.name = name;
+        this.score = score;
+    }
+}
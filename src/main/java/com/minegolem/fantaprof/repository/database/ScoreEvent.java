@@ -0,0 +1,44 @@
+package com.minegolem.fantaprof.repository.database;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+
+@Entity
+@Table(name = "score_events", indexes = @Index(name = "idx_score_events_professor", columnList = "professorId"))
+public class ScoreEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private Long professorId;
+
+    @Column(updatable = false)
+    private String ruleKey;
+
+    @Column(nullable = false, updatable = false)
+    private int delta;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(updatable = false)
+    private String admin;
+
+    public ScoreEvent(Long professorId, String ruleKey, int delta, String admin) {
+        this.professorId = professorId;
+        this.ruleKey = ruleKey;
+        this.delta = delta;
+        this.admin = admin;
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,40 @@
+package com.minegolem.fantaprof.repository.database;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+
+@Entity
+@Table(name = "score_snapshots", indexes = @Index(name = "idx_score_snapshots_event", columnList = "lastEventId"))
+public class ScoreSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Ultimo evento incluso nello snapshot: il replay riparte da quello successivo
+    @Column(nullable = false)
+    private Long lastEventId;
+
+    @Column(nullable = false)
+    private Long professorId;
+
+    private int score;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public ScoreSnapshot(Long lastEventId, Long professorId, int score, LocalDateTime createdAt) {
+        this.lastEventId = lastEventId;
+        this.professorId = professorId;
+        this.score = score;
+        this.createdAt = createdAt;
+    }
+}
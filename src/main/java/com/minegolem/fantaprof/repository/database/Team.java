@@ -13,11 +13,15 @@ import lombok.Setter;
 @NoArgsConstructor
 
 @Entity
-@Table(name = "teams")
+@Table(name = "teams", uniqueConstraints = @UniqueConstraint(name = Team.UK_USER_PROF, columnNames = {"user_id", "prof_id"}))
 public class Team {
 
+    public static final String UK_USER_PROF = "uk_teams_user_prof";
+
+    // Sequenza con allocazione a blocchi: permette a Hibernate di raggruppare gli insert in batch JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "teams_seq")
+    @SequenceGenerator(name = "teams_seq", sequenceName = "teams_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -12,7 +12,9 @@ import lombok.Setter;
 @Setter
 
 @Entity
-@Table(name = "users")
+// Indice per la classifica letta dal database: stesso verso di ORDER BY score_tot DESC, id, così il LIMIT
+// scorre solo l'indice (su (score_tot, id) l'ordine misto richiedeva un filesort)
+@Table(name = "users", indexes = @Index(name = "idx_users_score_tot_desc", columnList = "score_tot DESC, id"))
 public class User {
 
     @Id
@@ -21,6 +23,8 @@ public class User {
 
     private String username;
     private String password;
+    // Totale della squadra (capitano doppio), aggiornato con UPDATE set-based insieme ai punteggi
+    @Column(name = "score_tot")
     private Long scoreTot;
     private String role;
 
@@ -0,0 +1,62 @@
+package com.minegolem.fantaprof.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Modifiche allo stato in memoria (classifica, catalogo, storico) legate al commit della transazione corrente:
+ * un rollback non lascia mai la memoria avanti rispetto al database. Fuori da una transazione il lavoro parte subito.
+ *
+ * <p>Il commit avviene prima che il metodo {@code @Transactional} restituisca il controllo al chiamante,
+ * quindi per un controller il future è già completato.</p>
+ */
+@Slf4j
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    static <T> CompletableFuture<T> supply(Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            complete(result, work);
+            return result;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                complete(result, work);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    result.cancel(false);
+                }
+            }
+        });
+        return result;
+    }
+
+    static void run(Runnable work) {
+        supply(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // Il database è già aggiornato: un errore qui si registra e si propaga al chiamante tramite il future
+    private static <T> void complete(CompletableFuture<T> result, Supplier<T> work) {
+        try {
+            result.complete(work.get());
+        } catch (RuntimeException e) {
+            log.error("In-memory update after commit failed", e);
+            result.completeExceptionally(e);
+        }
+    }
+}
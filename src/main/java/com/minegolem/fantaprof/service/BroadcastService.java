@@ -0,0 +1,188 @@
+package com.minegolem.fantaprof.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minegolem.fantaprof.utils.dto.LeaderboardEventDTO;
+import com.minegolem.fantaprof.utils.dto.LeaderboardEventDTO.EventType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invio degli eventi della classifica ai client. I servizi pubblicano gli eventi dal proprio hook di commit
+ * (vedi {@link AfterCommit}) in una coda limitata; un thread dedicato li raccoglie per una finestra di tempo
+ * e accorpa quelli consecutivi dello stesso topic in un solo messaggio, così la richiesta dell'admin
+ * non paga il fan-out verso i client.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BroadcastService {
+
+    public static final String TOPIC_SAVE = "/topic/orders/save";
+    public static final String TOPIC_DELETE = "/topic/orders/delete";
+    public static final String TOPIC_MODIFY_SCORE = "/topic/orders/modifyScore";
+    public static final String TOPIC_CREA_SQUADRA = "/topic/orders/creaSquadra";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final LeaderboardStreamService leaderboardStreamService;
+    private final TeamPushService teamPushService;
+    private final Map<String, Timer> sendTimers = new ConcurrentHashMap<>();
+
+    @Value("${fantaprof.broadcast.window:PT0.15S}")
+    private Duration window;
+
+    @Value("${fantaprof.broadcast.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private BlockingQueue<LeaderboardEventDTO> queue;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    private Counter received;
+    private Counter published;
+    private Counter dropped;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        meterRegistry.gaugeCollectionSize("fantaprof.broadcast.queue.size", Tags.empty(), queue);
+        received = meterRegistry.counter("fantaprof.broadcast.events.received");
+        published = meterRegistry.counter("fantaprof.broadcast.events.published");
+        dropped = meterRegistry.counter("fantaprof.broadcast.events.dropped");
+
+        running = true;
+        dispatcher = new Thread(this::dispatch, "broadcast-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join(window.toMillis() + 1000);
+
+        // Quello che resta in coda viene inviato prima di chiudere
+        List<LeaderboardEventDTO> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        coalesce(remaining).forEach(this::sendEvent);
+    }
+
+    // Da chiamare a commit avvenuto: dentro afterCommit una nuova sincronizzazione non verrebbe più eseguita.
+    // Non blocca mai il chiamante: con la coda piena l'evento si scarta e i client, vedendo il salto
+    // di versione, si risincronizzano dall'API
+    public void publish(LeaderboardEventDTO event) {
+        received.increment();
+        leaderboardStreamService.onEvent(event);
+
+        if (!queue.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    // Il payload viene serializzato una volta sola e riusato per tutte le sessioni
+    public void send(String destination, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize message for " + destination, e);
+        }
+
+        sendTimers.computeIfAbsent(destination, this::sendTimer)
+                .record(() -> messagingTemplate.convertAndSend(destination, json));
+    }
+
+    private void dispatch() {
+        long windowNanos = window.toNanos();
+        while (running) {
+            try {
+                List<LeaderboardEventDTO> batch = new ArrayList<>();
+                batch.add(queue.take());
+
+                // Raccoglie gli eventi che arrivano entro la finestra aperta dal primo
+                long deadline = System.nanoTime() + windowNanos;
+                long remaining;
+                while ((remaining = deadline - System.nanoTime()) > 0) {
+                    LeaderboardEventDTO next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                coalesce(batch).forEach(this::sendEvent);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Broadcast dispatch failed", e);
+            }
+        }
+    }
+
+    // Accorpa gli eventi consecutivi dello stesso tipo; aggiunte e rimozioni di professori restano singole
+    private static List<LeaderboardEventDTO> coalesce(List<LeaderboardEventDTO> batch) {
+        // Richieste concorrenti possono accodare gli eventi fuori ordine: si riordinano per versione
+        batch.sort(Comparator.comparingLong(LeaderboardEventDTO::getVersion));
+
+        List<LeaderboardEventDTO> merged = new ArrayList<>();
+        for (LeaderboardEventDTO event : batch) {
+            int last = merged.size() - 1;
+            if (last >= 0 && mergeable(merged.get(last), event)) {
+                merged.set(last, merged.get(last).merge(event));
+            } else {
+                merged.add(event);
+            }
+        }
+        return merged;
+    }
+
+    private static boolean mergeable(LeaderboardEventDTO previous, LeaderboardEventDTO next) {
+        return previous.getType() == next.getType()
+                && (next.getType() == EventType.SCORE || next.getType() == EventType.TEAM_CREATED);
+    }
+
+    private void sendEvent(LeaderboardEventDTO event) {
+        send(topicOf(event.getType()), event);
+        teamPushService.push(event);
+        published.increment();
+    }
+
+    private Timer sendTimer(String destination) {
+        return Timer.builder("fantaprof.broadcast.send")
+                .tag("destination", destination)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static String topicOf(EventType type) {
+        return switch (type) {
+            case SCORE -> TOPIC_MODIFY_SCORE;
+            case PROFESSOR_ADDED -> TOPIC_SAVE;
+            case PROFESSOR_REMOVED -> TOPIC_DELETE;
+            case TEAM_CREATED -> TOPIC_CREA_SQUADRA;
+        };
+    }
+}
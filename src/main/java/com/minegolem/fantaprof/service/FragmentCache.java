@@ -0,0 +1,89 @@
+package com.minegolem.fantaprof.service;
+
+import com.minegolem.fantaprof.utils.dto.LeaderboardPageDTO;
+import com.minegolem.fantaprof.utils.dto.ProfessorCatalogDTO;
+import com.minegolem.fantaprof.utils.dto.ScoringRulesDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HTML già renderizzato delle parti condivise delle pagine (righe della classifica, liste del catalogo,
+ * regole di punteggio). Ogni frammento è renderizzato una sola volta per versione dei dati e poi
+ * riusato da tutti; le parti personali (posizione dell'utente, navigazione) restano nel template della pagina.
+ */
+@Service
+public class FragmentCache {
+
+    private final ITemplateEngine templateEngine;
+    private final Map<String, Fragment> fragments = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter renders;
+
+    public FragmentCache(ITemplateEngine templateEngine, MeterRegistry meterRegistry) {
+        this.templateEngine = templateEngine;
+        this.hits = meterRegistry.counter("fantaprof.fragments", "result", "hit");
+        this.renders = meterRegistry.counter("fantaprof.fragments", "result", "render");
+    }
+
+    public String leaderboardRows(LeaderboardPageDTO page) {
+        // Dal database la versione è condivisa tra i nodi: la modifica di un altro nodo cambia la chiave
+        return get("leaderboard:" + page.getPage() + ":" + page.getSize(), page.getVersion(),
+                "fragments/leaderboard", "rows", Map.of("leaderboard", page.getTeams()));
+    }
+
+    public String adminProfessorRows(ProfessorCatalogDTO catalog) {
+        return get("professors:admin", catalog.getVersion(),
+                "fragments/professors", "admin", Map.of("professors", catalog.getProfessors()));
+    }
+
+    public String draftProfessorRows(ProfessorCatalogDTO catalog) {
+        return get("professors:draft", catalog.getVersion(),
+                "fragments/professors", "draft", Map.of("professors", catalog.getProfessors()));
+    }
+
+    public String ruleRows(ScoringRulesDTO rules) {
+        return get("rules", rules.getVersion(),
+                "fragments/professors", "rules", Map.of("rules", rules.getRules()));
+    }
+
+    // Una versione diversa sostituisce la precedente; compute garantisce un solo render per chiave e versione
+    private String get(String key, long version, String template, String selector, Map<String, Object> variables) {
+        Fragment cached = fragments.get(key);
+        if (cached != null && cached.version == version) {
+            hits.increment();
+            return cached.html;
+        }
+
+        return fragments.compute(key, (k, current) -> {
+            if (current != null && current.version == version) {
+                hits.increment();
+                return current;
+            }
+
+            renders.increment();
+            return new Fragment(version, render(template, selector, variables));
+        }).html;
+    }
+
+    private String render(String template, String selector, Map<String, Object> variables) {
+        return templateEngine.process(template, Set.of(selector), new Context(Locale.getDefault(), variables));
+    }
+
+    private static final class Fragment {
+        private final long version;
+        private final String html;
+
+        private Fragment(long version, String html) {
+            this.version = version;
+            this.html = html;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.minegolem.fantaprof.service;
+
+import com.minegolem.fantaprof.repository.MatchdayRepository;
+import com.minegolem.fantaprof.repository.MatchdayScoreRepository;
+import com.minegolem.fantaprof.repository.ProfessorRepository;
+import com.minegolem.fantaprof.repository.ScoreEventRepository;
+import com.minegolem.fantaprof.repository.UserRepository;
+import com.minegolem.fantaprof.repository.database.Matchday;
+import com.minegolem.fantaprof.repository.database.MatchdayScore;
+import com.minegolem.fantaprof.repository.database.MatchdayScore.SubjectType;
+import com.minegolem.fantaprof.repository.database.Professor;
+import com.minegolem.fantaprof.service.cluster.ClusterPublisher;
+import com.minegolem.fantaprof.utils.TeamScoring;
+import com.minegolem.fantaprof.utils.dto.HistoryPointDTO;
+import com.minegolem.fantaprof.utils.dto.MatchdayDTO;
+import com.minegolem.fantaprof.utils.dto.StandingsDTO;
+import com.minegolem.fantaprof.utils.dto.TeamScoreDTO;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Storico per giornata: alla chiusura di ogni giornata salva i punteggi di professori e squadre
+ * e, dopo il commit, li indicizza in memoria. Le letture (classifica a una giornata, serie per i grafici)
+ * usano solo l'indice, mai le tabelle dei punteggi correnti.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HistoryService {
+
+    private final MatchdayRepository matchdayRepository;
+    private final MatchdayScoreRepository matchdayScoreRepository;
+    private final ScoreEventRepository scoreEventRepository;
+    private final ProfessorRepository professorRepository;
+    private final UserRepository userRepository;
+    private final ClusterPublisher clusterPublisher;
+
+    private final Map<Long, ScoreSeries> professorSeries = new ConcurrentHashMap<>();
+    private final Map<Long, ScoreSeries> teamSeries = new ConcurrentHashMap<>();
+    private final Map<Long, String> teamNames = new ConcurrentHashMap<>();
+
+    // Una giornata chiusa non cambia più: la sua classifica si ordina una volta sola
+    private final Map<Integer, StandingsDTO> standings = new ConcurrentHashMap<>();
+
+    // Giornate in ordine: la posizione i contiene la giornata i + 1
+    private volatile List<MatchdayDTO> matchdays = List.of();
+
+    @PostConstruct
+    public void init() {
+        List<MatchdayDTO> loaded = new ArrayList<>();
+        matchdayRepository.findAllByOrderByRoundAsc().forEach(matchday -> loaded.add(toDTO(matchday)));
+        matchdayScoreRepository.findAllByOrderByRoundAsc().forEach(this::index);
+        matchdays = List.copyOf(loaded);
+
+        log.info("Matchday history loaded: {} rounds, {} professors, {} teams",
+                loaded.size(), professorSeries.size(), teamSeries.size());
+    }
+
+    // Chiude la giornata corrente. Punteggi, classifica e ultimo evento si leggono tutti dal database
+    // sotto il lock esclusivo sui professori: chi registra punti tiene il lock sui professori toccati fino al commit,
+    // quindi nessun batch può finire a metà tra le righe salvate e lastEventId. Lo stesso lock mette in fila
+    // due chiusure concorrenti, anche da nodi diversi (il round resta comunque protetto dal vincolo unico).
+    // L'indice in memoria si aggiorna solo dopo il commit
+    @Transactional
+    public MatchdayDTO closeMatchday(String admin) {
+        List<Professor> professors = professorRepository.findAllForUpdate();
+        int round = matchdayRepository.findLastRound() + 1;
+
+        Matchday matchday = matchdayRepository.save(
+                new Matchday(round, LocalDateTime.now(), scoreEventRepository.findLastId(), admin));
+
+        List<MatchdayScore> scores = new ArrayList<>();
+        professors.forEach(professor ->
+                scores.add(new MatchdayScore(round, SubjectType.PROFESSOR, professor.getId(), null, professor.getScore())));
+        userRepository.findRanking(0, Integer.MAX_VALUE).forEach(team ->
+                scores.add(new MatchdayScore(round, SubjectType.TEAM, team.getTeamId(), team.getName(), team.getScore())));
+        matchdayScoreRepository.saveAllAndFlush(scores);
+
+        MatchdayDTO closed = toDTO(matchday);
+        AfterCommit.run(() -> {
+            indexClosed(closed, scores);
+            clusterPublisher.matchdayClosed(round);
+        });
+
+        log.info("Matchday {} closed by {}: {} scores", round, admin, scores.size());
+        return closed;
+    }
+
+    // La giornata diventa visibile ai lettori solo dopo che tutti i suoi punti sono indicizzati
+    private synchronized void indexClosed(MatchdayDTO closed, List<MatchdayScore> scores) {
+        scores.forEach(this::index);
+        List<MatchdayDTO> updated = new ArrayList<>(matchdays);
+        updated.add(closed);
+        matchdays = List.copyOf(updated);
+    }
+
+    // Giornate chiuse da un altro nodo: si indicizzano dal database quelle successive all'ultima nota
+    public synchronized void refresh() {
+        int known = matchdays.size();
+        List<Matchday> closed = matchdayRepository.findByRoundGreaterThanOrderByRoundAsc(known);
+        if (closed.isEmpty()) {
+            return;
+        }
+
+        matchdayScoreRepository.findByRoundGreaterThanOrderByRoundAsc(known).forEach(this::index);
+        List<MatchdayDTO> updated = new ArrayList<>(matchdays);
+        closed.forEach(matchday -> updated.add(toDTO(matchday)));
+        matchdays = List.copyOf(updated);
+    }
+
+    public List<MatchdayDTO> getMatchdays() {
+        return matchdays;
+    }
+
+    public Optional<StandingsDTO> getStandings(int round) {
+        List<MatchdayDTO> current = matchdays;
+        if (round < 1 || round > current.size()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(standings.computeIfAbsent(round, closed -> computeStandings(closed, current.get(closed - 1))));
+    }
+
+    private StandingsDTO computeStandings(int round, MatchdayDTO matchday) {
+        List<TeamScoreDTO> ordered = new ArrayList<>(teamSeries.size());
+        teamSeries.forEach((teamId, series) -> {
+            int index = series.indexAtOrBefore(round);
+            if (index >= 0) {
+                ordered.add(new TeamScoreDTO(teamId, teamNames.get(teamId), series.scoreAt(index)));
+            }
+        });
+        ordered.sort(TeamScoring.RANKING_ORDER);
+
+        return new StandingsDTO(round, matchday.getClosedAt(), List.copyOf(ordered));
+    }
+
+    public Optional<StandingsDTO> getStandingsAt(LocalDateTime at) {
+        return getStandings(roundAt(at));
+    }
+
+    public List<HistoryPointDTO> getProfessorHistory(Long professorId, int from, int to, int maxPoints) {
+        return range(professorSeries.get(professorId), from, to, maxPoints);
+    }
+
+    public List<HistoryPointDTO> getTeamHistory(Long teamId, int from, int to, int maxPoints) {
+        return range(teamSeries.get(teamId), from, to, maxPoints);
+    }
+
+    // Ultima giornata chiusa entro l'istante dato (ricerca binaria sulle date di chiusura)
+    private int roundAt(LocalDateTime at) {
+        List<MatchdayDTO> current = matchdays;
+        int low = 0;
+        int high = current.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (current.get(mid).getClosedAt().isAfter(at)) {
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return high + 1;
+    }
+
+    // Punti tra le giornate from e to; oltre maxPoints si tiene l'ultimo punto di ogni intervallo
+    private List<HistoryPointDTO> range(ScoreSeries series, int from, int to, int maxPoints) {
+        if (series == null || from > to || maxPoints < 1) {
+            return List.of();
+        }
+
+        // Una giornata in chiusura è visibile solo dopo che tutti i suoi punti sono indicizzati
+        List<MatchdayDTO> current = matchdays;
+        int first = series.indexAtOrBefore(from - 1) + 1;
+        int last = series.indexAtOrBefore(Math.min(to, current.size()));
+        int count = last - first + 1;
+        if (count <= 0) {
+            return List.of();
+        }
+
+        int points = Math.min(count, maxPoints);
+        List<HistoryPointDTO> result = new ArrayList<>(points);
+        for (int bucket = 1; bucket <= points; bucket++) {
+            int index = first + (int) ((long) bucket * count / points) - 1;
+            int round = series.roundAt(index);
+            result.add(new HistoryPointDTO(round, current.get(round - 1).getClosedAt(), series.scoreAt(index)));
+        }
+        return result;
+    }
+
+    private void index(MatchdayScore score) {
+        if (score.getSubjectType() == SubjectType.TEAM) {
+            teamNames.put(score.getSubjectId(), score.getName());
+            teamSeries.computeIfAbsent(score.getSubjectId(), id -> new ScoreSeries()).append(score.getRound(), score.getScore());
+        } else {
+            professorSeries.computeIfAbsent(score.getSubjectId(), id -> new ScoreSeries()).append(score.getRound(), score.getScore());
+        }
+    }
+
+    private static MatchdayDTO toDTO(Matchday matchday) {
+        return new MatchdayDTO(matchday.getRound(), matchday.getClosedAt(), matchday.getLastEventId());
+    }
+}
@@ -0,0 +1,244 @@
+package com.minegolem.fantaprof.service;
+
+import com.minegolem.fantaprof.repository.ProfessorRepository;
+import com.minegolem.fantaprof.repository.TeamRepository;
+import com.minegolem.fantaprof.repository.database.Professor;
+import com.minegolem.fantaprof.repository.database.Team;
+import com.minegolem.fantaprof.utils.TeamScoring;
+import com.minegolem.fantaprof.utils.dto.LeaderboardEventDTO;
+import com.minegolem.fantaprof.utils.dto.LeaderboardEventDTO.EventType;
+import com.minegolem.fantaprof.utils.dto.LeaderboardPageDTO;
+import com.minegolem.fantaprof.utils.dto.MemberScoreDTO;
+import com.minegolem.fantaprof.utils.dto.LeaderboardStateDTO;
+import com.minegolem.fantaprof.utils.dto.RankedTeamDTO;
+import com.minegolem.fantaprof.utils.dto.TeamDeltaDTO;
+import com.minegolem.fantaprof.utils.dto.TeamRankDTO;
+import com.minegolem.fantaprof.utils.dto.TeamScoreDTO;
+import com.minegolem.fantaprof.utils.dto.TeamUpdateDTO;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Classifica in memoria: i totali delle squadre vengono calcolati una volta all'avvio
+ * e poi aggiornati in modo incrementale ad ogni modifica di punteggi, professori o squadre.
+ * Ogni modifica incrementa la versione e restituisce il delta da inviare ai client: solo le squadre toccate,
+ * con posizione nuova e precedente; le posizioni delle altre si ricavano da queste (vedi {@link TeamDeltaDTO#rankShift}).
+ * L'ordine è mantenuto in un {@link RankingTree}: pagine e posizione di una squadra non richiedono ordinamenti.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LeaderboardService {
+
+    private final TeamRepository teamRepository;
+    private final ProfessorRepository professorRepository;
+
+    private final Map<Long, Integer> professorScores = new HashMap<>();
+    private final Map<Long, TeamEntry> teamsByUser = new HashMap<>();
+    private final ProfessorTeamIndex professorTeams = new ProfessorTeamIndex();
+
+    private final RankingTree<TeamScoreDTO> ranking = new RankingTree<>(TeamScoring.RANKING_ORDER, TeamScoreDTO::getTeamId);
+
+    private volatile long version;
+    private volatile LeaderboardStateDTO state;
+
+    @PostConstruct
+    public void init() {
+        rebuild(professorRepository.findAll(), teamRepository.findAll());
+    }
+
+    public synchronized void rebuild(Collection<Professor> professors, Collection<Team> teams) {
+        professorScores.clear();
+        teamsByUser.clear();
+        professorTeams.clear();
+        ranking.clear();
+
+        professors.forEach(professor -> professorScores.put(professor.getId(), professor.getScore()));
+        teams.forEach(this::addMember);
+
+        version++;
+        state = null;
+        log.info("Leaderboard built: {} teams, {} professors", teamsByUser.size(), professorScores.size());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<TeamScoreDTO> getRanking() {
+        return getState().getLeaderboard();
+    }
+
+    public LeaderboardStateDTO getState() {
+        LeaderboardStateDTO current = state;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (this) {
+            if (state == null) {
+                state = new LeaderboardStateDTO(version, List.copyOf(ranking.range(0, Integer.MAX_VALUE)));
+            }
+            return state;
+        }
+    }
+
+    // Pagina della classifica (page 0-based): O(log n + size), senza lock sul motore
+    public LeaderboardPageDTO getPage(int page, int size) {
+        long currentVersion = version;
+        int total = ranking.size();
+
+        // Calcolato in long: page * size può superare Integer.MAX_VALUE. Oltre l'ultima squadra la pagina è vuota
+        long offset = (long) page * size;
+        if (offset >= total) {
+            return new LeaderboardPageDTO(currentVersion, "memory", page, size, total, List.of());
+        }
+
+        List<TeamScoreDTO> teams = ranking.range((int) offset, size);
+        return new LeaderboardPageDTO(currentVersion, "memory", page, size, total, ranked(teams, (int) offset + 1));
+    }
+
+    // Posizione di una squadra e le radius squadre prima e dopo
+    public Optional<TeamRankDTO> getTeamRank(Long teamId, int radius) {
+        long currentVersion = version;
+        RankingTree.Slice<TeamScoreDTO> slice = ranking.around(teamId, radius);
+        if (slice == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new TeamRankDTO(currentVersion, teamId, slice.rank, slice.total,
+                ranked(slice.keys, slice.firstRank)));
+    }
+
+    // Totale aggiornato di ogni squadra che contiene uno dei professori, per i messaggi personali
+    public synchronized List<TeamUpdateDTO> teamUpdates(Map<Long, Integer> scores) {
+        Map<Long, List<MemberScoreDTO>> changedByUser = new LinkedHashMap<>();
+        scores.forEach((professorId, score) -> professorTeams.forEach(professorId, userId -> {
+            boolean captain = professorId.equals(teamsByUser.get(userId).captainId);
+            changedByUser.computeIfAbsent(userId, id -> new ArrayList<>())
+                    .add(new MemberScoreDTO(professorId, score, captain, TeamScoring.memberScore(score, captain)));
+        }));
+
+        List<TeamUpdateDTO> updates = new ArrayList<>(changedByUser.size());
+        changedByUser.forEach((userId, changed) -> {
+            TeamEntry entry = teamsByUser.get(userId);
+            updates.add(new TeamUpdateDTO(userId, entry.name, entry.total, changed));
+        });
+        return updates;
+    }
+
+    public synchronized LeaderboardEventDTO professorAdded(Professor professor) {
+        return applyScores(EventType.PROFESSOR_ADDED, professor.getId(), Map.of(professor.getId(), professor.getScore()));
+    }
+
+    public synchronized LeaderboardEventDTO professorRemoved(Long professorId) {
+        // Le squadre che lo avevano scelto non ricevono più punti da lui
+        LeaderboardEventDTO event = applyScores(EventType.PROFESSOR_REMOVED, professorId, Map.of(professorId, 0));
+        professorScores.remove(professorId);
+        professorTeams.remove(professorId);
+        return event;
+    }
+
+    public synchronized LeaderboardEventDTO scoreChanged(Long professorId, int newScore) {
+        return applyScores(EventType.SCORE, professorId, Map.of(professorId, newScore));
+    }
+
+    public synchronized LeaderboardEventDTO scoresChanged(Map<Long, Integer> newScores) {
+        Long professorId = newScores.size() == 1 ? newScores.keySet().iterator().next() : null;
+        return applyScores(EventType.SCORE, professorId, newScores);
+    }
+
+    // Delta per professore; quelli non più presenti (eliminati nel frattempo) vengono ignorati
+    public synchronized LeaderboardEventDTO scoresAdded(Map<Long, Integer> deltas) {
+        Map<Long, Integer> newScores = new HashMap<>();
+        deltas.forEach((professorId, delta) -> {
+            Integer score = professorScores.get(professorId);
+            if (score != null) {
+                newScores.put(professorId, score + delta);
+            }
+        });
+        return scoresChanged(newScores);
+    }
+
+    public synchronized LeaderboardEventDTO teamCreated(List<Team> members) {
+        Map<Long, Integer> previousRanks = new HashMap<>();
+        members.forEach(team -> previousRanks.computeIfAbsent(team.getUserId(), ranking::rankOf));
+        members.forEach(this::addMember);
+
+        return publish(EventType.TEAM_CREATED, null, Map.of(), previousRanks);
+    }
+
+    private LeaderboardEventDTO applyScores(EventType type, Long professorId, Map<Long, Integer> newScores) {
+        // Posizioni di partenza lette tutte prima di spostare qualunque squadra
+        Map<Long, Integer> previousRanks = new HashMap<>();
+        newScores.keySet().forEach(id ->
+                professorTeams.forEach(id, userId -> previousRanks.computeIfAbsent(userId, ranking::rankOf)));
+
+        newScores.forEach((id, newScore) -> {
+            int oldScore = professorScores.getOrDefault(id, 0);
+            professorScores.put(id, newScore);
+            if (oldScore == newScore) {
+                return;
+            }
+
+            // Lavoro proporzionale alle sole squadre che contengono il professore
+            professorTeams.forEach(id, userId -> {
+                TeamEntry entry = teamsByUser.get(userId);
+                boolean captain = id.equals(entry.captainId);
+                entry.total += TeamScoring.memberScore(newScore, captain) - TeamScoring.memberScore(oldScore, captain);
+                ranking.put(new TeamScoreDTO(userId, entry.name, entry.total));
+            });
+        });
+
+        return publish(type, professorId, newScores, previousRanks);
+    }
+
+    // Delta con le sole squadre toccate: O(k log n) per k squadre, senza ricostruire né scorrere la classifica
+    private LeaderboardEventDTO publish(EventType type, Long professorId, Map<Long, Integer> scores,
+                                       Map<Long, Integer> previousRanks) {
+        version++;
+        state = null;
+
+        List<TeamDeltaDTO> deltas = new ArrayList<>(previousRanks.size());
+        previousRanks.forEach((userId, previousRank) -> {
+            TeamEntry entry = teamsByUser.get(userId);
+            deltas.add(new TeamDeltaDTO(userId, entry.name, entry.total, ranking.rankOf(userId), previousRank));
+        });
+
+        return new LeaderboardEventDTO(type, version, version - 1, professorId, Map.copyOf(scores), List.copyOf(deltas));
+    }
+
+    private void addMember(Team team) {
+        TeamEntry entry = teamsByUser.computeIfAbsent(team.getUserId(), userId -> new TeamEntry(team.getName()));
+        if (team.isCaptain()) {
+            entry.captainId = team.getProfId();
+        }
+
+        professorTeams.add(team.getProfId(), team.getUserId());
+        entry.total += TeamScoring.memberScore(professorScores.getOrDefault(team.getProfId(), 0), team.isCaptain());
+        ranking.put(new TeamScoreDTO(team.getUserId(), entry.name, entry.total));
+    }
+
+    static List<RankedTeamDTO> ranked(List<TeamScoreDTO> teams, int firstRank) {
+        List<RankedTeamDTO> result = new ArrayList<>(teams.size());
+        for (int i = 0; i < teams.size(); i++) {
+            TeamScoreDTO team = teams.get(i);
+            result.add(new RankedTeamDTO(firstRank + i, team.getTeamId(), team.getName(), team.getScore()));
+        }
+        return result;
+    }
+
+    private static final class TeamEntry {
+        private final String name;
+        private Long captainId;
+        private long total;
+
+        private TeamEntry(String name) {
+            this.name = name;
+        }
+    }
+}
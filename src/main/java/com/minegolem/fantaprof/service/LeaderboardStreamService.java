@@ -0,0 +1,192 @@
+package com.minegolem.fantaprof.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minegolem.fantaprof.utils.dto.LeaderboardDeltaDTO;
+import com.minegolem.fantaprof.utils.dto.LeaderboardEventDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Classifica in streaming (Server-Sent Events) per schermi e proiettori.
+ * Ogni client riceve uno snapshot iniziale e poi i delta, accorpati e serializzati una volta
+ * sola per ogni intervallo di flush. Un client ancora occupato con l'invio precedente salta i delta
+ * e al turno successivo riceve uno snapshot aggiornato; se resta bloccato oltre max-lag viene chiuso.
+ */
+@Slf4j
+@Service
+public class LeaderboardStreamService {
+
+    private final LeaderboardService leaderboardService;
+    private final ObjectMapper objectMapper;
+    private final int maxClients;
+    private final long maxLagNanos;
+    private final long heartbeatNanos;
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sender;
+    private final Counter dropped;
+
+    // Eventi arrivati dall'ultimo flush, accorpati in ordine di versione al momento dell'invio
+    private final List<LeaderboardEventDTO> pending = new ArrayList<>();
+    private long lastSentAt = System.nanoTime();
+
+    public LeaderboardStreamService(LeaderboardService leaderboardService,
+                                    ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry,
+                                    @Qualifier("sseSenderExecutor") ExecutorService sender,
+                                    @Value("${fantaprof.sse.max-clients:5000}") int maxClients,
+                                    @Value("${fantaprof.sse.max-lag:PT10S}") Duration maxLag,
+                                    @Value("${fantaprof.sse.heartbeat:PT15S}") Duration heartbeat) {
+        this.leaderboardService = leaderboardService;
+        this.objectMapper = objectMapper;
+        this.sender = sender;
+        this.maxClients = maxClients;
+        this.maxLagNanos = maxLag.toNanos();
+        this.heartbeatNanos = heartbeat.toNanos();
+
+        meterRegistry.gaugeCollectionSize("fantaprof.sse.clients", List.of(), clients);
+        this.dropped = meterRegistry.counter("fantaprof.sse.clients.dropped");
+    }
+
+    public SseEmitter subscribe() {
+        if (clients.size() >= maxClients) {
+            throw new IllegalStateException("Too many leaderboard stream clients");
+        }
+
+        SseEmitter emitter = new SseEmitter(0L);
+        Client client = new Client(emitter);
+        emitter.onCompletion(() -> clients.remove(client));
+        emitter.onTimeout(() -> clients.remove(client));
+        emitter.onError(e -> clients.remove(client));
+
+        // Registrato prima dello snapshot: gli eventi successivi non vanno persi (il client scarta le versioni vecchie)
+        client.busySince = System.nanoTime();
+        clients.add(client);
+        sender.execute(() -> deliver(client, null));
+        return emitter;
+    }
+
+    public void onEvent(LeaderboardEventDTO event) {
+        synchronized (pending) {
+            pending.add(event);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fantaprof.sse.flush-interval:PT0.25S}")
+    public void flush() {
+        if (clients.isEmpty()) {
+            // Chi si collega parte da uno snapshot: senza client gli eventi non servono
+            synchronized (pending) {
+                pending.clear();
+            }
+            return;
+        }
+
+        String delta = takeDelta();
+        long now = System.nanoTime();
+        if (delta == null && now - lastSentAt < heartbeatNanos) {
+            return;
+        }
+        lastSentAt = now;
+
+        for (Client client : clients) {
+            if (client.busySince != 0) {
+                client.stale |= delta != null;
+                if (now - client.busySince > maxLagNanos) {
+                    drop(client, "slow");
+                }
+                continue;
+            }
+
+            client.busySince = now;
+            sender.execute(() -> deliver(client, delta));
+        }
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // L'executor lo chiude ThreadingConfig, dopo questo bean
+        clients.forEach(client -> client.emitter.complete());
+    }
+
+    private String takeDelta() {
+        List<LeaderboardEventDTO> events;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return null;
+            }
+            events = new ArrayList<>(pending);
+            pending.clear();
+        }
+
+        // Ogni squadra compare una volta, con la posizione finale e quella di partenza
+        events.sort(Comparator.comparingLong(LeaderboardEventDTO::getVersion));
+        LeaderboardEventDTO merged = events.stream().reduce(LeaderboardEventDTO::merge).orElseThrow();
+        LeaderboardDeltaDTO delta = new LeaderboardDeltaDTO(merged.getVersion(), merged.getTeams());
+
+        try {
+            return objectMapper.writeValueAsString(delta);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize leaderboard delta", e);
+        }
+    }
+
+    // Eseguito su un virtual thread: al massimo un invio in corso per client
+    private void deliver(Client client, String delta) {
+        try {
+            if (client.stale || delta == null && !client.started) {
+                client.stale = false;
+                client.started = true;
+                client.emitter.send(SseEmitter.event().name("snapshot").data(leaderboardService.getState(), MediaType.APPLICATION_JSON));
+            } else if (delta != null) {
+                client.emitter.send(SseEmitter.event().name("delta").data(delta, MediaType.APPLICATION_JSON));
+            } else {
+                client.emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+            client.busySince = 0;
+        } catch (IOException | IllegalStateException e) {
+            drop(client, "disconnected");
+        }
+    }
+
+    private void drop(Client client, String reason) {
+        if (clients.remove(client)) {
+            dropped.increment();
+            log.debug("Leaderboard stream client dropped ({})", reason);
+            client.emitter.complete();
+        }
+    }
+
+    private static final class Client {
+        private final SseEmitter emitter;
+        private volatile long busySince;
+        private volatile boolean stale;
+        private volatile boolean started;
+
+        private Client(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
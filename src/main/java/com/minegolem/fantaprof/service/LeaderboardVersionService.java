@@ -0,0 +1,33 @@
+package com.minegolem.fantaprof.service;
+
+import com.minegolem.fantaprof.repository.LeaderboardVersionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Versione della classifica letta dal database (fantaprof.leaderboard.source=database): un contatore
+ * nella stessa transazione di ogni modifica ai totali, quindi uguale su tutti i nodi. In modalità memory
+ * la versione è quella di {@link LeaderboardService} e il contatore non viene toccato.
+ */
+@Service
+@RequiredArgsConstructor
+public class LeaderboardVersionService {
+
+    private final LeaderboardVersionRepository repository;
+
+    @Value("${fantaprof.leaderboard.source:memory}")
+    private String leaderboardSource;
+
+    // Va chiamato per ultimo nella transazione, dopo i lock su professori e utenti:
+    // la riga del contatore è sempre l'ultima bloccata e non può chiudere un ciclo di attese
+    public void changed() {
+        if ("database".equals(leaderboardSource)) {
+            repository.increment();
+        }
+    }
+
+    public long current() {
+        return repository.findCurrent().orElse(0L);
+    }
+}
@@ -0,0 +1,123 @@
+package com.minegolem.fantaprof.service;
+
+import com.minegolem.fantaprof.repository.ProfessorRepository;
+import com.minegolem.fantaprof.repository.database.Professor;
+import com.minegolem.fantaprof.utils.dto.ProfessorCatalogDTO;
+import com.minegolem.fantaprof.utils.dto.ProfessorDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Cache in memoria della lista dei professori. I lettori ricevono sempre uno snapshot immutabile;
+ * le modifiche creano un nuovo snapshot (copy-on-write) con versione incrementata.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProfessorCatalog {
+
+    private final ProfessorRepository repository;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+
+    private long version;
+    private volatile ProfessorCatalogDTO snapshot;
+
+    public ProfessorCatalogDTO get() {
+        ProfessorCatalogDTO current = snapshot;
+        if (current != null) {
+            hits.incrementAndGet();
+            return current;
+        }
+
+        misses.incrementAndGet();
+        return load();
+    }
+
+    public List<ProfessorDTO> getProfessors() {
+        return get().getProfessors();
+    }
+
+    public long getVersion() {
+        return get().getVersion();
+    }
+
+    public synchronized void invalidate() {
+        version++;
+        snapshot = null;
+    }
+
+    public synchronized void professorAdded(Professor professor) {
+        patch(professors -> professors.add(ProfessorDTO.of(professor)));
+    }
+
+    public synchronized void professorRemoved(Long professorId) {
+        patch(professors -> professors.removeIf(professor -> professor.getId().equals(professorId)));
+    }
+
+    // Delta e non punteggi assoluti: le modifiche applicate dopo il commit possono arrivare in qualsiasi ordine
+    public synchronized void scoresAdded(Map<Long, Integer> deltas) {
+        patch(professors -> professors.replaceAll(professor -> {
+            Integer delta = deltas.get(professor.getId());
+            return delta == null ? professor : professor.withScore(professor.getScore() + delta);
+        }));
+    }
+
+    public synchronized Map<String, Long> getStats() {
+        return Map.of(
+                "version", version,
+                "hits", hits.get(),
+                "misses", misses.get(),
+                "refreshes", refreshes.get());
+    }
+
+    // La query gira fuori dal monitor, così le modifiche dopo il commit non aspettano il database.
+    // Si pubblica solo se nel frattempo la versione non è cambiata: altrimenti la lettura potrebbe
+    // mancare (o contenere già) una modifica, e il risultato vale solo per questo lettore
+    private ProfessorCatalogDTO load() {
+        long loadedVersion;
+        synchronized (this) {
+            if (snapshot != null) {
+                return snapshot;
+            }
+            loadedVersion = version;
+        }
+
+        List<ProfessorDTO> professors = repository.findAll().stream()
+                .map(ProfessorDTO::of)
+                .toList();
+        ProfessorCatalogDTO loaded = new ProfessorCatalogDTO(loadedVersion, professors);
+
+        synchronized (this) {
+            if (snapshot != null) {
+                return snapshot;
+            }
+            if (version == loadedVersion) {
+                snapshot = loaded;
+                refreshes.incrementAndGet();
+            }
+        }
+        return loaded;
+    }
+
+    private void patch(Consumer<List<ProfessorDTO>> change) {
+        version++;
+
+        ProfessorCatalogDTO current = snapshot;
+        if (current == null) {
+            // Non ancora caricata: la prossima lettura la ricarica dal database
+            return;
+        }
+
+        List<ProfessorDTO> professors = new ArrayList<>(current.getProfessors());
+        change.accept(professors);
+        snapshot = new ProfessorCatalogDTO(version, List.copyOf(professors));
+    }
+}
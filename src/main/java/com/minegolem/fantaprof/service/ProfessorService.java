@@ -1,32 +1,77 @@
 package com.minegolem.fantaprof.service;
 
 import com.minegolem.fantaprof.repository.ProfessorRepository;
+import com.minegolem.fantaprof.repository.UserRepository;
 import com.minegolem.fantaprof.repository.database.Professor;
+import com.minegolem.fantaprof.repository.database.ScoreEvent;
+import com.minegolem.fantaprof.service.cluster.ClusterPublisher;
+import com.minegolem.fantaprof.utils.dto.LeaderboardEventDTO;
+import com.minegolem.fantaprof.utils.dto.ProfessorCatalogDTO;
+import com.minegolem.fantaprof.utils.dto.ProfessorDTO;
+import com.minegolem.fantaprof.utils.dto.ScoreEntryDTO;
+import com.minegolem.fantaprof.utils.dto.ScoringRuleDTO;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @AllArgsConstructor
+@Timed(value = "fantaprof.service.professor", histogram = true)
 public class ProfessorService {
 
     private final ProfessorRepository repository;
+    private final UserRepository userRepository;
+    private final LeaderboardService leaderboardService;
+    private final ScoreEventService scoreEventService;
+    private final ProfessorCatalog catalog;
+    private final ScoringRuleRegistry scoringRuleRegistry;
+    private final BroadcastService broadcastService;
+    private final LeaderboardVersionService leaderboardVersionService;
+    private final ClusterPublisher clusterPublisher;
 
-    public void addProfessor(Professor professor) {
+    // Catalogo e classifica in memoria si aggiornano, e l'evento parte, solo dopo il commit
+    @Transactional
+    public CompletableFuture<LeaderboardEventDTO> addProfessor(Professor professor) {
         repository.save(professor);
+        return AfterCommit.supply(() -> {
+            catalog.professorAdded(professor);
+            clusterPublisher.professorAdded(professor.getId());
+            return published(leaderboardService.professorAdded(professor));
+        });
+    }
+
+    public List<ProfessorDTO> getAllProfessors() {
+        return catalog.getProfessors();
+    }
+
+    public ProfessorCatalogDTO getCatalog() {
+        return catalog.get();
     }
 
-    public List<Professor> getAllProfessors() {
-        return repository.findAll();
+    public Map<String, Long> getCatalogStats() {
+        return catalog.getStats();
     }
 
-    public void deleteProfessor(Long uuid) {
+    // Le squadre che lo avevano scelto perdono i suoi punti anche nel totale salvato
+    @Transactional
+    public CompletableFuture<LeaderboardEventDTO> deleteProfessor(Long uuid) {
+        repository.findByIdForUpdate(uuid)
+                .ifPresent(professor -> userRepository.addProfessorPoints(uuid, -professor.getScore()));
         repository.deleteById(uuid);
+        leaderboardVersionService.changed();
+        return AfterCommit.supply(() -> {
+            catalog.professorRemoved(uuid);
+            clusterPublisher.professorRemoved(uuid);
+            return published(leaderboardService.professorRemoved(uuid));
+        });
     }
 
     public int getScoreById(Long id) {
@@ -35,11 +80,65 @@ public class ProfessorService {
         return professor.map(Professor::getScore).orElse(0);
     }
 
-    public void updateScoreById(Long id, int score) {
-        Optional<Professor> professor = repository.findById(id);
-        professor.ifPresent(value -> {
-            value.setScore(score);
-            repository.save(value);
+    // Applica tutte le voci in una transazione con incrementi atomici lato DB
+    @Transactional
+    public CompletableFuture<LeaderboardEventDTO> applyScoreEntries(List<ScoreEntryDTO> entries, String admin) {
+        List<ScoreEntryDTO> resolved = entries.stream()
+                .map(this::resolve)
+                .toList();
+
+        // Ordinati per id: i lock sulle righe dei professori si prendono sempre in ordine crescente,
+        // due batch concorrenti con gli stessi professori non possono andare in deadlock
+        Map<Long, Integer> deltas = new TreeMap<>();
+        resolved.forEach(entry -> deltas.merge(entry.getProfessorId(), entry.getDelta(), Integer::sum));
+
+        // Punteggio del professore e totali delle squadre nella stessa transazione, un UPDATE per professore
+        Map<Long, Integer> applied = new TreeMap<>();
+        deltas.forEach((professorId, delta) -> {
+            if (repository.incrementScore(professorId, delta) == 0) {
+                return;  // Professore inesistente o appena eliminato
+            }
+            userRepository.addProfessorPoints(professorId, delta);
+            applied.put(professorId, delta);
         });
+
+        scoreEventService.record(resolved.stream()
+                .filter(entry -> applied.containsKey(entry.getProfessorId()))
+                .map(entry -> new ScoreEvent(entry.getProfessorId(), entry.getEventKey(), entry.getDelta(), admin))
+                .toList());
+        if (!applied.isEmpty()) {
+            leaderboardVersionService.changed();
+        }
+
+        // Dopo il commit si applicano i delta e non i punteggi assoluti: l'ordine tra batch concorrenti non conta
+        return AfterCommit.supply(() -> {
+            catalog.scoresAdded(applied);
+            clusterPublisher.scoresAdded(applied);
+            // Un solo messaggio per tutto il batch
+            return published(leaderboardService.scoresAdded(applied));
+        });
+    }
+
+    private LeaderboardEventDTO published(LeaderboardEventDTO event) {
+        broadcastService.publish(event);
+        return event;
+    }
+
+    // Le voci con eventKey prendono i punti dal catalogo delle regole, le altre usano il delta esplicito
+    private ScoreEntryDTO resolve(ScoreEntryDTO entry) {
+        if (entry.getProfessorId() == null) {
+            throw new IllegalArgumentException("Invalid score entry: " + entry);
+        }
+
+        if (entry.getEventKey() != null) {
+            ScoringRuleDTO rule = scoringRuleRegistry.findByKey(entry.getEventKey())
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown scoring rule: " + entry.getEventKey()));
+            return new ScoreEntryDTO(entry.getProfessorId(), rule.getKey(), rule.getPoints());
+        }
+
+        if (entry.getDelta() == null) {
+            throw new IllegalArgumentException("Invalid score entry: " + entry);
+        }
+        return entry;
     }
 }
@@ -0,0 +1,129 @@
+package com.minegolem.fantaprof.service;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Indice inverso professore -> utenti proprietari delle squadre che lo contengono.
+ * Chiavi e valori sono long primitivi (open addressing con sondaggio lineare): nessun boxing
+ * e nessun Set per professore. Non è thread-safe: lo usa solo {@link LeaderboardService} sotto il suo lock.
+ * Il vincolo uk_teams_user_prof garantisce che una coppia professore/utente arrivi una volta sola.
+ */
+final class ProfessorTeamIndex {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[][] values;
+    private int[] counts;
+    private int size;
+
+    ProfessorTeamIndex() {
+        clear();
+    }
+
+    void clear() {
+        keys = new long[64];
+        Arrays.fill(keys, EMPTY);
+        values = new long[64][];
+        counts = new int[64];
+        size = 0;
+    }
+
+    void add(long professorId, long userId) {
+        int slot = slot(professorId);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = professorId;
+            values[slot] = new long[4];
+            if (++size * 2 > keys.length) {
+                resize();
+                slot = slot(professorId);
+            }
+        }
+
+        long[] owners = values[slot];
+        int count = counts[slot];
+        if (count == owners.length) {
+            owners = Arrays.copyOf(owners, count * 2);
+            values[slot] = owners;
+        }
+        owners[count] = userId;
+        counts[slot] = count + 1;
+    }
+
+    // Cancellazione con spostamento all'indietro: gli elementi successivi dello stesso gruppo risalgono
+    // nel buco, così la ricerca lineare non incontra mai uno slot vuoto prima della propria chiave
+    void remove(long professorId) {
+        int hole = slot(professorId);
+        if (keys[hole] == EMPTY) {
+            return;
+        }
+        size--;
+
+        int mask = keys.length - 1;
+        for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            // L'elemento può risalire se la sua posizione ideale non cade tra il buco (escluso) e lui
+            if (((next - home(keys[next])) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                counts[hole] = counts[next];
+                hole = next;
+            }
+        }
+        keys[hole] = EMPTY;
+        values[hole] = null;
+        counts[hole] = 0;
+    }
+
+    int count(long professorId) {
+        int slot = slot(professorId);
+        return keys[slot] == EMPTY ? 0 : counts[slot];
+    }
+
+    void forEach(long professorId, LongConsumer action) {
+        int slot = slot(professorId);
+        if (keys[slot] == EMPTY) {
+            return;
+        }
+
+        long[] owners = values[slot];
+        int count = counts[slot];
+        for (int i = 0; i < count; i++) {
+            action.accept(owners[i]);
+        }
+    }
+
+    // Posizione della chiave, oppure del primo slot libero dove andrebbe inserita
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = home(key);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int home(long key) {
+        return Long.hashCode(key * 0x9E3779B97F4A7C15L) & (keys.length - 1);
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[][] oldValues = values;
+        int[] oldCounts = counts;
+
+        keys = new long[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        values = new long[keys.length][];
+        counts = new int[keys.length];
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.minegolem.fantaprof.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Albero di ordine statistico (treap con dimensione dei sottoalberi) per la classifica.
+ * Inserimento, rimozione, posizione di una squadra e selezione del k-esimo costano O(log n);
+ * una pagina di k elementi costa O(log n + k). I lettori condividono il read lock, le scritture
+ * prendono il write lock.
+ */
+final class RankingTree<K> {
+
+    private final Comparator<? super K> order;
+    private final Function<? super K, Long> idOf;
+    private final Map<Long, K> keysById = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Node<K> root;
+
+    RankingTree(Comparator<? super K> order, Function<? super K, Long> idOf) {
+        this.order = order;
+        this.idOf = idOf;
+    }
+
+    // Inserisce la chiave o sostituisce quella con lo stesso id
+    void put(K key) {
+        lock.writeLock().lock();
+        try {
+            K previous = keysById.put(idOf.apply(key), key);
+            if (previous != null) {
+                root = remove(root, previous);
+            }
+            root = insert(root, new Node<>(key, ThreadLocalRandom.current().nextInt()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            K previous = keysById.remove(id);
+            if (previous != null) {
+                root = remove(root, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            keysById.clear();
+            root = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Posizione (1-based) dell'id; 0 se l'id non è in classifica
+    int rankOf(Long id) {
+        lock.readLock().lock();
+        try {
+            K key = keysById.get(id);
+            return key == null ? 0 : rank(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Elementi dalla posizione offset (0-based) in ordine di classifica
+    List<K> range(int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            List<K> result = new ArrayList<>(Math.max(0, Math.min(limit, size(root) - offset)));
+            collect(root, offset, (long) offset + limit, 0, result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Posizione (1-based) dell'id e gli elementi entro radius posizioni; null se l'id non è in classifica
+    Slice<K> around(Long id, int radius) {
+        lock.readLock().lock();
+        try {
+            K key = keysById.get(id);
+            if (key == null) {
+                return null;
+            }
+
+            int rank = rank(key);
+            int offset = Math.max(0, rank - 1 - radius);
+            List<K> keys = new ArrayList<>();
+            collect(root, offset, (long) rank + radius, 0, keys);
+            return new Slice<>(rank, offset + 1, size(root), keys);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static final class Slice<K> {
+        final int rank;
+        final int firstRank;
+        final int total;
+        final List<K> keys;
+
+        private Slice(int rank, int firstRank, int total, List<K> keys) {
+            this.rank = rank;
+            this.firstRank = firstRank;
+            this.total = total;
+            this.keys = keys;
+        }
+    }
+
+    private int rank(K key) {
+        int rank = 0;
+        Node<K> node = root;
+        while (node != null) {
+            int cmp = order.compare(key, node.key);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left) + 1;
+            }
+        }
+        return 0;
+    }
+
+    // Visita in ordine solo i sottoalberi che intersecano [from, to)
+    private void collect(Node<K> node, long from, long to, int base, List<K> out) {
+        if (node == null) {
+            return;
+        }
+
+        int index = base + size(node.left);
+        if (from < index) {
+            collect(node.left, from, to, base, out);
+        }
+        if (from <= index && index < to) {
+            out.add(node.key);
+        }
+        if (index + 1 < to) {
+            collect(node.right, from, to, index + 1, out);
+        }
+    }
+
+    private Node<K> insert(Node<K> node, Node<K> inserted) {
+        if (node == null) {
+            return inserted;
+        }
+
+        if (order.compare(inserted.key, node.key) < 0) {
+            node.left = insert(node.left, inserted);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, inserted);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        return update(node);
+    }
+
+    private Node<K> remove(Node<K> node, K key) {
+        if (node == null) {
+            return null;
+        }
+
+        int cmp = order.compare(key, node.key);
+        if (cmp < 0) {
+            node.left = remove(node.left, key);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, key);
+        } else {
+            return merge(node.left, node.right);
+        }
+        return update(node);
+    }
+
+    private Node<K> merge(Node<K> left, Node<K> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    private Node<K> rotateRight(Node<K> node) {
+        Node<K> left = node.left;
+        node.left = left.right;
+        left.right = update(node);
+        return update(left);
+    }
+
+    private Node<K> rotateLeft(Node<K> node) {
+        Node<K> right = node.right;
+        node.right = right.left;
+        right.left = update(node);
+        return update(right);
+    }
+
+    private static <K> Node<K> update(Node<K> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node<K> {
+        private final K key;
+        private final int priority;
+        private int size = 1;
+        private Node<K> left;
+        private Node<K> right;
+
+        private Node(K key, int priority) {
+            this.key = key;
+            this.priority = priority;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.minegolem.fantaprof.service;
+
+import com.minegolem.fantaprof.repository.JobLockRepository;
+import com.minegolem.fantaprof.repository.ProfessorRepository;
+import com.minegolem.fantaprof.repository.ScoreEventRepository;
+import com.minegolem.fantaprof.repository.ScoreSnapshotRepository;
+import com.minegolem.fantaprof.repository.UserRepository;
+import com.minegolem.fantaprof.repository.database.JobLock;
+import com.minegolem.fantaprof.repository.database.Professor;
+import com.minegolem.fantaprof.repository.database.ScoreEvent;
+import com.minegolem.fantaprof.repository.database.ScoreSnapshot;
+import com.minegolem.fantaprof.service.cluster.ClusterPublisher;
+import com.minegolem.fantaprof.utils.dto.LeaderboardEventDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Registro append-only delle modifiche di punteggio. Gli snapshot periodici salvano i punteggi
+ * fino a un certo evento, così la ricostruzione rilegge solo la coda successiva.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScoreEventService {
+
+    public static final String SNAPSHOT_JOB = "score-snapshot";
+
+    private final ScoreEventRepository eventRepository;
+    private final ScoreSnapshotRepository snapshotRepository;
+    private final ProfessorRepository professorRepository;
+    private final UserRepository userRepository;
+    private final LeaderboardService leaderboardService;
+    private final ProfessorCatalog catalog;
+    private final BroadcastService broadcastService;
+    private final JobLockRepository jobLockRepository;
+    private final LeaderboardVersionService leaderboardVersionService;
+    private final ClusterPublisher clusterPublisher;
+
+    @Value("${fantaprof.events.snapshot-interval:PT10M}")
+    private Duration snapshotInterval;
+
+    @Transactional
+    public void record(List<ScoreEvent> events) {
+        eventRepository.saveAll(events);
+    }
+
+    @Transactional(readOnly = true)
+    public void replay(long fromEventId, Consumer<ScoreEvent> consumer) {
+        Long lastId = eventRepository.findLastId();
+        if (lastId == null) {
+            return;
+        }
+
+        try (Stream<ScoreEvent> events = eventRepository.streamRange(fromEventId, lastId)) {
+            events.forEach(consumer);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> rebuildScores() {
+        Long lastId = eventRepository.findLastId();
+        return rebuildScores(lastId == null ? 0L : lastId);
+    }
+
+    // Punteggi al termine dell'evento toId: ultimo snapshot utile + replay della coda
+    private Map<Long, Integer> rebuildScores(long toId) {
+        Long snapshotId = snapshotRepository.findLastEventId();
+        if (snapshotId == null) {
+            // Senza snapshot il registro non ha una base: come per il primo snapshot valgono i punteggi attuali,
+            // che contengono già tutti gli eventi registrati (rifarne il replay li conterebbe due volte)
+            return currentScores(professorRepository.findAll());
+        }
+
+        Map<Long, Integer> scores = new HashMap<>();
+        long fromId = Math.min(snapshotId, toId);
+        snapshotRepository.findByLastEventId(snapshotId)
+                .forEach(snapshot -> scores.put(snapshot.getProfessorId(), snapshot.getScore()));
+
+        try (Stream<ScoreEvent> events = eventRepository.streamRange(fromId, toId)) {
+            events.forEach(event -> scores.merge(event.getProfessorId(), event.getDelta(), Integer::sum));
+        }
+
+        return scores;
+    }
+
+    // Ogni nodo ha il proprio timer: la riga in job_locks fa sì che nel cluster ne giri uno per intervallo
+    @Transactional
+    @Scheduled(fixedDelayString = "${fantaprof.events.snapshot-interval:PT10M}",
+            initialDelayString = "${fantaprof.events.snapshot-initial-delay:PT10S}")
+    public void snapshot() {
+        snapshot(false);
+    }
+
+    // Richiesto dall'admin: ignora l'ultimo snapshot fatto da un altro nodo, ma non due nodi insieme
+    @Transactional
+    public void snapshotNow() {
+        snapshot(true);
+    }
+
+    private void snapshot(boolean force) {
+        // SKIP LOCKED: se un altro nodo sta già facendo lo snapshot questo turno si salta
+        Optional<JobLock> job = jobLockRepository.tryLock(SNAPSHOT_JOB);
+        if (job.isEmpty()) {
+            log.debug("Score snapshot skipped: running on another node (or job_locks row missing)");
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime lastRunAt = job.get().getLastRunAt();
+        if (!force && lastRunAt != null && lastRunAt.isAfter(now.minus(snapshotInterval.dividedBy(2)))) {
+            return;
+        }
+        job.get().setLastRunAt(now);
+
+        // Limite sicuro: gli id IDENTITY non seguono l'ordine dei commit, quindi max(id) può superare un evento
+        // non ancora committato. Chi registra eventi tiene il lock esclusivo sui professori toccati fino al commit:
+        // con il lock condiviso su tutti i professori ogni evento fino a max(id) è già committato.
+        // Fino alla fine dello snapshot i nuovi batch di punteggi aspettano
+        List<Professor> professors = professorRepository.findAllForShare();
+        Long snapshotId = snapshotRepository.findLastEventId();
+        Long lastId = eventRepository.findLastId();
+
+        Map<Long, Integer> scores;
+        long toId;
+        if (snapshotId == null) {
+            // Primo avvio con il registro: i punteggi attuali diventano la base di partenza
+            toId = lastId == null ? 0L : lastId;
+            scores = currentScores(professors);
+        } else if (lastId == null || lastId <= snapshotId) {
+            return;
+        } else {
+            toId = lastId;
+            scores = rebuildScores(toId);
+        }
+
+        List<ScoreSnapshot> rows = new ArrayList<>(scores.size());
+        scores.forEach((professorId, score) -> rows.add(new ScoreSnapshot(toId, professorId, score, now)));
+        snapshotRepository.saveAll(rows);
+
+        log.info("Score snapshot written at event {} ({} professors)", toId, rows.size());
+    }
+
+    private static Map<Long, Integer> currentScores(List<Professor> professors) {
+        Map<Long, Integer> scores = new HashMap<>();
+        professors.forEach(professor -> scores.put(professor.getId(), professor.getScore()));
+        return scores;
+    }
+
+    // Riporta i punteggi dei professori (e la classifica) a quelli ricostruiti dal registro.
+    // Le righe sono bloccate prima di ricostruire: nessun batch concorrente si inserisce tra lettura e scrittura
+    @Transactional
+    public CompletableFuture<LeaderboardEventDTO> restoreScores() {
+        List<Professor> professors = professorRepository.findAllForUpdate();
+        Map<Long, Integer> scores = rebuildScores();
+
+        Map<Long, Integer> deltas = new TreeMap<>();
+        professors.forEach(professor -> {
+            int restored = scores.getOrDefault(professor.getId(), professor.getScore());
+            if (restored != professor.getScore()) {
+                deltas.put(professor.getId(), restored - professor.getScore());
+                professor.setScore(restored);
+            }
+        });
+        professorRepository.saveAll(professors);
+        userRepository.recomputeAllScoreTots();
+        leaderboardVersionService.changed();
+
+        log.info("Restored {} professor scores from the event log ({} changed)", professors.size(), deltas.size());
+        return AfterCommit.supply(() -> {
+            catalog.scoresAdded(deltas);
+            clusterPublisher.scoresAdded(deltas);
+            LeaderboardEventDTO event = leaderboardService.scoresAdded(deltas);
+            broadcastService.publish(event);
+            return event;
+        });
+    }
+}
@@ -0,0 +1,45 @@
+package com.minegolem.fantaprof.service;
+
+import java.util.Arrays;
+
+/**
+ * Serie storica di un professore o di una squadra: giornate crescenti e punteggio a fine giornata.
+ * Un solo thread scrive (chiusura giornata, sotto lock); i lettori leggono prima {@code size}
+ * e poi gli array, quindi vedono sempre almeno {@code size} elementi validi.
+ */
+final class ScoreSeries {
+
+    private int[] rounds = new int[8];
+    private long[] scores = new long[8];
+    private volatile int size;
+
+    void append(int round, long score) {
+        int n = size;
+        if (n == rounds.length) {
+            rounds = Arrays.copyOf(rounds, n * 2);
+            scores = Arrays.copyOf(scores, n * 2);
+        }
+        rounds[n] = round;
+        scores[n] = score;
+        size = n + 1;
+    }
+
+    // Indice dell'ultimo punto con giornata <= round, -1 se la serie inizia dopo
+    int indexAtOrBefore(int round) {
+        int n = size;
+        int index = Arrays.binarySearch(rounds, 0, n, round);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int roundAt(int index) {
+        return rounds[index];
+    }
+
+    long scoreAt(int index) {
+        return scores[index];
+    }
+}
@@ -0,0 +1,99 @@
+package com.minegolem.fantaprof.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minegolem.fantaprof.utils.dto.ScoringRuleDTO;
+import com.minegolem.fantaprof.utils.dto.ScoringRulesDTO;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Catalogo dei bonus/malus caricato una volta dalla configurazione. Il ricaricamento
+ * costruisce un nuovo catalogo immutabile e lo sostituisce in modo atomico.
+ * In produzione le regole stanno in un file esterno (fantaprof.scoring.rules-location=file:...),
+ * così si possono modificare e ricaricare senza un nuovo jar.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScoringRuleRegistry {
+
+    private static final TypeReference<List<ScoringRuleDTO>> RULE_LIST = new TypeReference<>() {
+    };
+    private static final String BUNDLED_LOCATION = "classpath:scoring-rules.json";
+
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+
+    @Value("${fantaprof.scoring.rules-location:" + BUNDLED_LOCATION + "}")
+    private String location;
+
+    private volatile ScoringRulesDTO rules;
+
+    // Se il file esterno non è ancora stato creato si parte dalle regole incluse nel jar
+    @PostConstruct
+    public void init() {
+        if (!resourceLoader.getResource(location).exists()) {
+            log.warn("Scoring rules not found at {}, using the bundled {}", location, BUNDLED_LOCATION);
+            rules = new ScoringRulesDTO(1, validate(read(BUNDLED_LOCATION), BUNDLED_LOCATION));
+            return;
+        }
+        reload();
+    }
+
+    // IllegalArgumentException per un file illeggibile o non valido: il catalogo in uso resta quello precedente
+    public synchronized ScoringRulesDTO reload() {
+        List<ScoringRuleDTO> loaded = validate(read(location), location);
+
+        long version = rules == null ? 1 : rules.getVersion() + 1;
+        rules = new ScoringRulesDTO(version, loaded);
+
+        log.info("Loaded {} scoring rules from {} (version {})", loaded.size(), location, version);
+        return rules;
+    }
+
+    private List<ScoringRuleDTO> read(String from) {
+        try (InputStream in = resourceLoader.getResource(from).getInputStream()) {
+            return objectMapper.readValue(in, RULE_LIST);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot load scoring rules from " + from + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Chiavi e id devono essere presenti e unici: findByKey e findById li usano come indice
+    private static List<ScoringRuleDTO> validate(List<ScoringRuleDTO> loaded, String from) {
+        Set<String> keys = new HashSet<>();
+        Set<Long> ids = new HashSet<>();
+        for (ScoringRuleDTO rule : loaded) {
+            if (rule.getKey() == null || rule.getKey().isBlank()) {
+                throw new IllegalArgumentException("Scoring rule " + rule.getId() + " in " + from + " has no key");
+            }
+            if (!keys.add(rule.getKey())) {
+                throw new IllegalArgumentException("Duplicate scoring rule key in " + from + ": " + rule.getKey());
+            }
+            if (!ids.add(rule.getId())) {
+                throw new IllegalArgumentException("Duplicate scoring rule id in " + from + ": " + rule.getId());
+            }
+        }
+        return loaded;
+    }
+
+    public ScoringRulesDTO getRules() {
+        return rules;
+    }
+
+    public Optional<ScoringRuleDTO> findByKey(String key) {
+        return rules.findByKey(key);
+    }
+}
@@ -0,0 +1,45 @@
+package com.minegolem.fantaprof.service;
+
+import com.minegolem.fantaprof.repository.UserRepository;
+import com.minegolem.fantaprof.repository.database.User;
+import com.minegolem.fantaprof.utils.dto.LeaderboardEventDTO;
+import com.minegolem.fantaprof.utils.dto.TeamUpdateDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Messaggi personali su /user/queue/team: quando cambia il punteggio di un professore
+ * ricevono il nuovo totale solo gli utenti che lo hanno in squadra.
+ */
+@Service
+@RequiredArgsConstructor
+public class TeamPushService {
+
+    public static final String QUEUE_TEAM = "/queue/team";
+
+    private final LeaderboardService leaderboardService;
+    private final UserRepository userRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // userId -> username: il nome utente non cambia, basta caricarlo alla prima notifica
+    private final Map<Long, String> usernames = new ConcurrentHashMap<>();
+
+    public void push(LeaderboardEventDTO event) {
+        if (event.getType() != LeaderboardEventDTO.EventType.SCORE || event.getScores().isEmpty()) {
+            return;
+        }
+
+        for (TeamUpdateDTO update : leaderboardService.teamUpdates(event.getScores())) {
+            String username = usernames.computeIfAbsent(update.getUserId(), id -> userRepository.findById(id)
+                    .map(User::getUsername)
+                    .orElse(null));
+            if (username != null) {
+                messagingTemplate.convertAndSendToUser(username, QUEUE_TEAM, update);
+            }
+        }
+    }
+}
@@ -2,80 +2,127 @@ package com.minegolem.fantaprof.service;
 
 import com.minegolem.fantaprof.repository.ProfessorRepository;
 import com.minegolem.fantaprof.repository.TeamRepository;
-import com.minegolem.fantaprof.repository.database.Professor;
+import com.minegolem.fantaprof.repository.UserRepository;
 import com.minegolem.fantaprof.repository.database.Team;
-import lombok.AllArgsConstructor;
+import com.minegolem.fantaprof.service.cluster.ClusterPublisher;
+import com.minegolem.fantaprof.utils.dto.LeaderboardEventDTO;
+import com.minegolem.fantaprof.utils.dto.LeaderboardPageDTO;
+import com.minegolem.fantaprof.utils.dto.LeaderboardStateDTO;
+import com.minegolem.fantaprof.utils.dto.TeamPageDTO;
+import com.minegolem.fantaprof.utils.dto.TeamRankDTO;
+import com.minegolem.fantaprof.utils.dto.TeamScoreDTO;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
+@Timed(value = "fantaprof.service.team", histogram = true)
 public class TeamService {
 
     private final TeamRepository teamRepository;
+    private final UserRepository userRepository;
     private final ProfessorRepository professorRepository;
+    private final LeaderboardService leaderboardService;
+    private final BroadcastService broadcastService;
+    private final LeaderboardVersionService leaderboardVersionService;
+    private final ClusterPublisher clusterPublisher;
+
+    // memory: classifica in memoria del nodo; database: ORDER BY sul totale salvato, coerente tra più nodi
+    @Value("${fantaprof.leaderboard.source:memory}")
+    private String leaderboardSource;
+
+    // Un solo insert in batch; il lock sulla riga dell'utente serializza le richieste concorrenti.
+    // Come nei batch di punteggi i professori si bloccano prima degli utenti, in ordine di id (in condivisione):
+    // un batch concorrente o aspetta la squadra o finisce prima, senza deadlock e senza perdere punti
+    @Transactional
+    public CompletableFuture<LeaderboardEventDTO> createTeam(Long userId, List<Team> members) {
+        professorRepository.lockAllForShare(members.stream().map(Team::getProfId).toList());
+        userRepository.findByIdForUpdate(userId)
+                .orElseThrow(() -> new UsernameNotFoundException(String.valueOf(userId)));
+
+        if (teamRepository.existsByUserId(userId)) {
+            throw new IllegalStateException("User " + userId + " already has a team");
+        }
+
+        teamRepository.saveAllAndFlush(members);
+        userRepository.recomputeScoreTot(userId);
+        leaderboardVersionService.changed();
+        return AfterCommit.supply(() -> {
+            LeaderboardEventDTO event = leaderboardService.teamCreated(members);
+            broadcastService.publish(event);
+            clusterPublisher.teamCreated(userId);
+            return event;
+        });
+    }
 
-    public void addTeam(Team team) {
-        teamRepository.save(team);
+    // Allinea i totali salvati ai punteggi correnti (squadre create prima che venissero mantenuti)
+    @Transactional
+    public int backfillScoreTots() {
+        int updated = userRepository.recomputeAllScoreTots();
+        leaderboardVersionService.changed();
+        return updated;
     }
 
-    public String findNameByUserId(Long userId) {
-        List<Team> teams = teamRepository.findByUserId(userId)
-                .orElse(new ArrayList<>());
+    public TeamPageDTO getTeamPage(Long userId) {
+        return TeamPageDTO.of(teamRepository.findMembersByUserId(userId));
+    }
+
+    public List<TeamScoreDTO> getTeamScores() {
+        return leaderboardService.getRanking();
+    }
 
-        return teams.isEmpty() ? null : teams.get(0).getName();
+    public LeaderboardStateDTO getLeaderboardState() {
+        return leaderboardService.getState();
     }
 
-    public Map<String, Integer> getTeamScores() {
-        List<Team> teams = teamRepository.findAll();
-        Map<String, Integer> teamScores = new HashMap<>();
-
-        int totalScore = 0;
-
-        for (Team team : teams) {
-            totalScore += professorRepository.findById(team.getProfId())
-                    .map(professor -> {
-                        if (team.isCaptain()) {
-                            return professor.getScore() * 2;
-                        } else {
-                            return professor.getScore();
-                        }
-                    }).orElse(0);
+    public LeaderboardPageDTO getLeaderboardPage(int page, int size) {
+        if (!fromDatabase()) {
+            return leaderboardService.getPage(page, size);
         }
 
-        for (Team team : teams) {
-            if (!teamScores.containsKey(team.getName())) {
-                teamScores.put(team.getName(), totalScore);
-            }
+        // Versione letta prima dei dati: la pagina è almeno aggiornata quanto la versione dichiarata
+        long version = leaderboardVersionService.current();
+        int total = (int) teamRepository.countTeams();
+        long offset = (long) page * size;
+        if (offset >= total) {
+            return new LeaderboardPageDTO(version, leaderboardSource, page, size, total, List.of());
         }
 
-        return teamScores;
+        List<TeamScoreDTO> teams = userRepository.findRanking((int) offset, size);
+        return new LeaderboardPageDTO(version, leaderboardSource, page, size, total, LeaderboardService.ranked(teams, (int) offset + 1));
     }
 
-    public List<Professor> getTeamProfessors(Long userId) {
-        List<Team> teamList = teamRepository.findByUserId(userId).orElse(null);
-
-        if (teamList == null) return new ArrayList<>();
-
-        List<Professor> professorList = new ArrayList<>();
+    public Optional<TeamRankDTO> getTeamRank(Long userId, int radius) {
+        if (!fromDatabase()) {
+            return leaderboardService.getTeamRank(userId, radius);
+        }
 
-        for (Team team : teamList) {
-            professorList.add(professorRepository.findById(team.getProfId()).orElse(null));
+        long version = leaderboardVersionService.current();
+        Optional<Long> score = userRepository.findById(userId)
+                .filter(user -> teamRepository.existsByUserId(userId))
+                .map(user -> user.getScoreTot() == null ? 0L : user.getScoreTot());
+        if (score.isEmpty()) {
+            return Optional.empty();
         }
 
-        return professorList;
+        int rank = (int) userRepository.countAhead(score.get(), userId) + 1;
+        int offset = Math.max(0, rank - 1 - radius);
+        List<TeamScoreDTO> teams = userRepository.findRanking(offset, rank - offset + radius);
+        return Optional.of(new TeamRankDTO(version, userId, rank, (int) teamRepository.countTeams(), LeaderboardService.ranked(teams, offset + 1)));
     }
 
-
-    public List<Team> getTeam(Long userId) {
-        return teamRepository.findByUserId(userId).orElse(null);
+    public boolean hasUserATeam(Long userId) {
+        return teamRepository.existsByUserId(userId);
     }
 
-    public boolean hasUserATeam(Long userId) {
-        return teamRepository.findByUserId(userId)
-                .map(list -> !list.isEmpty())
-                .orElse(false);
+    private boolean fromDatabase() {
+        return "database".equals(leaderboardSource);
     }
 }
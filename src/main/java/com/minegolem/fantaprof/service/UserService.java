@@ -1,21 +1,37 @@
 package com.minegolem.fantaprof.service;
 
+import com.minegolem.fantaprof.repository.TeamRepository;
 import com.minegolem.fantaprof.repository.UserRepository;
 import com.minegolem.fantaprof.repository.database.User;
+import com.minegolem.fantaprof.utils.FantaPrincipal;
 import lombok.AllArgsConstructor;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @AllArgsConstructor
 public class UserService implements UserDetailsService {
 
+    private static final int PRINCIPAL_CACHE_SIZE = 1024;
+
     private final UserRepository userRepository;
+    private final TeamRepository teamRepository;
+
+    // Cache LRU limitata per le richieste il cui principal non contiene già l'id dell'utente
+    private final Map<String, FantaPrincipal> principalCache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FantaPrincipal> eldest) {
+            return size() > PRINCIPAL_CACHE_SIZE;
+        }
+    };
 
     public User getUserByUsername(String username) {
         return userRepository.findByUsername(username)
@@ -24,6 +40,51 @@ public class UserService implements UserDetailsService {
 
     public void registerUser(User user) {
         userRepository.save(user);
+        invalidate(user.getUsername());
+    }
+
+    public FantaPrincipal currentPrincipal(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof FantaPrincipal principal && principal.getUserId() != null) {
+            return principal;
+        }
+        return getPrincipal(authentication.getName());
+    }
+
+    public FantaPrincipal getPrincipal(String username) {
+        synchronized (principalCache) {
+            FantaPrincipal cached = principalCache.get(username);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        User user = getUserByUsername(username);
+        FantaPrincipal principal = new FantaPrincipal(user.getId(), user.getUsername(), user.getRole(),
+                teamRepository.findTeamNameByUserId(user.getId()));
+
+        synchronized (principalCache) {
+            principalCache.put(username, principal);
+        }
+        return principal;
+    }
+
+    public void invalidate(String username) {
+        synchronized (principalCache) {
+            principalCache.remove(username);
+        }
+    }
+
+    // Per le modifiche arrivate da un altro nodo, che conosce solo l'id dell'utente
+    public void invalidateUser(Long userId) {
+        synchronized (principalCache) {
+            principalCache.values().removeIf(principal -> userId.equals(principal.getUserId()));
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (principalCache) {
+            principalCache.clear();
+        }
     }
 
     @Override
@@ -0,0 +1,15 @@
+package com.minegolem.fantaprof.service.cluster;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterBatch {
+    private String nodeId;
+    private List<ClusterEvent> events;
+}
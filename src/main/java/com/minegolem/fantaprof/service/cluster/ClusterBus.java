@@ -0,0 +1,14 @@
+package com.minegolem.fantaprof.service.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Trasporto dei batch di eventi tra i nodi. Ogni batch pubblicato viene consegnato a tutti i nodi iscritti,
+ * compreso quello che lo ha inviato; i batch di uno stesso nodo arrivano nell'ordine di invio.
+ */
+public interface ClusterBus {
+
+    void publish(ClusterBatch batch);
+
+    void subscribe(Consumer<ClusterBatch> listener);
+}
@@ -0,0 +1,32 @@
+package com.minegolem.fantaprof.service.cluster;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Modifica di dominio già committata da un nodo, da applicare al motore degli altri nodi.
+ * Per i punteggi viaggiano i delta (commutativi); per il resto solo l'id, il dato si rilegge dal database.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterEvent {
+
+    public enum Type {
+        SCORES_ADDED,
+        PROFESSOR_ADDED,
+        PROFESSOR_REMOVED,
+        TEAM_CREATED,
+        MATCHDAY_CLOSED
+    }
+
+    private Type type;
+    // Numero progressivo sul nodo che ha generato l'evento, senza buchi
+    private long sequence;
+    // Professore, utente della squadra o giornata, secondo il tipo
+    private Long subjectId;
+    private Map<Long, Integer> deltas;
+}
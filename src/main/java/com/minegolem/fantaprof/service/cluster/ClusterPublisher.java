@@ -0,0 +1,172 @@
+package com.minegolem.fantaprof.service.cluster;
+
+import com.minegolem.fantaprof.service.cluster.ClusterEvent.Type;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lato di invio della propagazione tra nodi (fantaprof.broker.mode=cluster). I servizi, dopo aver applicato
+ * una modifica al proprio motore, la annunciano qui; un thread dedicato raccoglie gli eventi per una finestra
+ * (o fino a max-batch-size) e li pubblica sul {@link ClusterBus} in un solo batch. Con le altre modalità
+ * ogni chiamata è un no-op.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClusterPublisher {
+
+    private final ClusterBus bus;
+    private final MeterRegistry meterRegistry;
+
+    // Nuovo a ogni avvio: la sequenza riparte da 1 e gli altri nodi non la confondono con quella precedente
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${fantaprof.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${fantaprof.cluster.batch-window:PT0.02S}")
+    private Duration batchWindow;
+
+    @Value("${fantaprof.cluster.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${fantaprof.cluster.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private BlockingQueue<ClusterEvent> queue;
+    private Thread dispatcher;
+    private volatile boolean running;
+    private long sequence;
+
+    private Counter batches;
+    private Counter dropped;
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        batches = meterRegistry.counter("fantaprof.cluster.batches.sent");
+        dropped = meterRegistry.counter("fantaprof.cluster.events.dropped");
+
+        running = true;
+        dispatcher = new Thread(this::dispatch, "cluster-publisher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        log.info("Cluster publisher started as node {}", nodeId);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (dispatcher == null) {
+            return;
+        }
+
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join(batchWindow.toMillis() + 1000);
+
+        List<ClusterEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        send(remaining);
+    }
+
+    public boolean isEnabled() {
+        return "cluster".equals(brokerMode);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void scoresAdded(Map<Long, Integer> deltas) {
+        if (!deltas.isEmpty()) {
+            publish(Type.SCORES_ADDED, null, Map.copyOf(deltas));
+        }
+    }
+
+    public void professorAdded(Long professorId) {
+        publish(Type.PROFESSOR_ADDED, professorId, null);
+    }
+
+    public void professorRemoved(Long professorId) {
+        publish(Type.PROFESSOR_REMOVED, professorId, null);
+    }
+
+    public void teamCreated(Long userId) {
+        publish(Type.TEAM_CREATED, userId, null);
+    }
+
+    public void matchdayClosed(int round) {
+        publish(Type.MATCHDAY_CLOSED, (long) round, null);
+    }
+
+    // Numerazione e accodamento insieme: la coda contiene gli eventi in ordine di sequenza.
+    // Con la coda piena l'evento si perde e gli altri nodi, vedendo il buco, si riallineano dal database
+    private synchronized void publish(Type type, Long subjectId, Map<Long, Integer> deltas) {
+        if (queue == null) {
+            return;
+        }
+
+        sequence++;
+        if (!queue.offer(new ClusterEvent(type, sequence, subjectId, deltas))) {
+            dropped.increment();
+        }
+    }
+
+    private void dispatch() {
+        long windowNanos = batchWindow.toNanos();
+        while (running) {
+            try {
+                List<ClusterEvent> batch = new ArrayList<>();
+                batch.add(queue.take());
+
+                // La finestra aperta dal primo evento limita la latenza aggiunta
+                long deadline = System.nanoTime() + windowNanos;
+                long remaining;
+                while (batch.size() < maxBatchSize && (remaining = deadline - System.nanoTime()) > 0) {
+                    ClusterEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void send(List<ClusterEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        try {
+            bus.publish(new ClusterBatch(nodeId, List.copyOf(events)));
+            batches.increment();
+        } catch (RuntimeException e) {
+            log.warn("Failed to send {} events to the cluster", events.size(), e);
+        }
+    }
+}
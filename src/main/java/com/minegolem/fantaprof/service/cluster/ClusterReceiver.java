@@ -0,0 +1,126 @@
+package com.minegolem.fantaprof.service.cluster;
+
+import com.minegolem.fantaprof.repository.ProfessorRepository;
+import com.minegolem.fantaprof.repository.TeamRepository;
+import com.minegolem.fantaprof.service.BroadcastService;
+import com.minegolem.fantaprof.service.HistoryService;
+import com.minegolem.fantaprof.service.LeaderboardService;
+import com.minegolem.fantaprof.service.ProfessorCatalog;
+import com.minegolem.fantaprof.service.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lato di ricezione: applica al motore locale (catalogo, classifica, storico, cache dei principal) gli eventi
+ * degli altri nodi e li invia ai client collegati a questo nodo con la versione locale, come farebbe
+ * il nodo di origine dopo il commit. Ogni nodo numera i propri eventi senza buchi: quelli già visti sono
+ * duplicati; un buco (batch perso, nodo appena collegato) fa ricaricare tutto dal database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClusterReceiver {
+
+    private final ClusterBus bus;
+    private final ClusterPublisher publisher;
+    private final ProfessorCatalog catalog;
+    private final LeaderboardService leaderboardService;
+    private final BroadcastService broadcastService;
+    private final HistoryService historyService;
+    private final UserService userService;
+    private final ProfessorRepository professorRepository;
+    private final TeamRepository teamRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Long> lastSequenceByNode = new HashMap<>();
+
+    private Counter applied;
+    private Counter duplicates;
+    private Counter resyncs;
+
+    @PostConstruct
+    public void start() {
+        if (!publisher.isEnabled()) {
+            return;
+        }
+
+        applied = meterRegistry.counter("fantaprof.cluster.events.applied");
+        duplicates = meterRegistry.counter("fantaprof.cluster.events.duplicate");
+        resyncs = meterRegistry.counter("fantaprof.cluster.resyncs");
+        bus.subscribe(this::receive);
+    }
+
+    synchronized void receive(ClusterBatch batch) {
+        // I propri eventi sono già stati applicati prima di essere pubblicati
+        if (publisher.getNodeId().equals(batch.getNodeId())) {
+            return;
+        }
+
+        for (ClusterEvent event : batch.getEvents()) {
+            Long previous = lastSequenceByNode.get(batch.getNodeId());
+            if (previous != null && event.getSequence() <= previous) {
+                duplicates.increment();
+                continue;
+            }
+            lastSequenceByNode.put(batch.getNodeId(), event.getSequence());
+
+            long expected = previous == null ? 1 : previous + 1;
+            if (event.getSequence() != expected) {
+                // Il database contiene già anche questo evento: dopo la ricarica non va riapplicato
+                log.warn("Cluster events {}..{} from node {} missing, reloading from the database",
+                        expected, event.getSequence() - 1, batch.getNodeId());
+                resync();
+                continue;
+            }
+
+            try {
+                apply(event);
+                applied.increment();
+            } catch (RuntimeException e) {
+                log.warn("Failed to apply cluster event {} from node {}, reloading", event, batch.getNodeId(), e);
+                resync();
+            }
+        }
+    }
+
+    private void apply(ClusterEvent event) {
+        switch (event.getType()) {
+            case SCORES_ADDED -> {
+                catalog.scoresAdded(event.getDeltas());
+                broadcastService.publish(leaderboardService.scoresAdded(event.getDeltas()));
+            }
+            // Se intanto è stato eliminato, l'evento di rimozione segue nella stessa sequenza
+            case PROFESSOR_ADDED -> professorRepository.findById(event.getSubjectId()).ifPresent(professor -> {
+                catalog.professorAdded(professor);
+                broadcastService.publish(leaderboardService.professorAdded(professor));
+            });
+            case PROFESSOR_REMOVED -> {
+                catalog.professorRemoved(event.getSubjectId());
+                broadcastService.publish(leaderboardService.professorRemoved(event.getSubjectId()));
+            }
+            case TEAM_CREATED -> {
+                teamRepository.findByUserId(event.getSubjectId())
+                        .filter(members -> !members.isEmpty())
+                        .ifPresent(members -> broadcastService.publish(leaderboardService.teamCreated(members)));
+                userService.invalidateUser(event.getSubjectId());
+            }
+            case MATCHDAY_CLOSED -> historyService.refresh();
+        }
+    }
+
+    // I client vedono il salto di versione e si risincronizzano dall'API
+    private void resync() {
+        resyncs.increment();
+        catalog.invalidate();
+        leaderboardService.init();
+        historyService.refresh();
+        userService.invalidateAll();
+    }
+}
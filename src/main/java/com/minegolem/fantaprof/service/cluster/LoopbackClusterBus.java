@@ -0,0 +1,26 @@
+package com.minegolem.fantaprof.service.cluster;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Bus in-process: consegna i batch in modo sincrono agli iscritti della stessa istanza.
+ * {@link #SHARED} collega tutti i contesti Spring avviati nella stessa JVM; i test ne creano una propria.
+ */
+public class LoopbackClusterBus implements ClusterBus {
+
+    public static final LoopbackClusterBus SHARED = new LoopbackClusterBus();
+
+    private final List<Consumer<ClusterBatch>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(ClusterBatch batch) {
+        listeners.forEach(listener -> listener.accept(batch));
+    }
+
+    @Override
+    public void subscribe(Consumer<ClusterBatch> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,156 @@
+package com.minegolem.fantaprof.service.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.stomp.ReactorNettyTcpStompClient;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Bus tra JVM diverse su un broker STOMP esterno (RabbitMQ, ActiveMQ): ogni nodo pubblica e ascolta
+ * lo stesso topic. Il broker mantiene l'ordine dei messaggi di una connessione. Se la connessione cade
+ * i batch si perdono: gli altri nodi vedono il buco nella sequenza e si riallineano dal database.
+ */
+@Slf4j
+public class StompClusterBus implements ClusterBus {
+
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+
+    private final ReactorNettyTcpStompClient client;
+    private final ObjectMapper objectMapper;
+    private final String destination;
+    private final StompHeaders connectHeaders = new StompHeaders();
+
+    private final List<Consumer<ClusterBatch>> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService reconnector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cluster-stomp-reconnect");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile StompSession session;
+    private boolean connecting;
+
+    public StompClusterBus(String host, int port, String login, String passcode, String destination,
+                           ObjectMapper objectMapper) {
+        this.client = new ReactorNettyTcpStompClient(host, port);
+        this.client.setMessageConverter(new StringMessageConverter());
+        this.client.setDefaultHeartbeat(new long[] {0, 0});
+        this.objectMapper = objectMapper;
+        this.destination = destination;
+        this.connectHeaders.setLogin(login);
+        this.connectHeaders.setPasscode(passcode);
+    }
+
+    @Override
+    public void publish(ClusterBatch batch) {
+        StompSession current = session;
+        if (current == null || !current.isConnected()) {
+            log.warn("Cluster bus not connected: {} events not sent", batch.getEvents().size());
+            return;
+        }
+
+        try {
+            current.send(destination, objectMapper.writeValueAsString(batch));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize cluster batch", e);
+        }
+    }
+
+    // La connessione parte con il primo iscritto: un nodo fuori dal cluster non apre nulla
+    @Override
+    public void subscribe(Consumer<ClusterBatch> listener) {
+        listeners.add(listener);
+        connect();
+    }
+
+    public void shutdown() {
+        reconnector.shutdownNow();
+        StompSession current = session;
+        if (current != null && current.isConnected()) {
+            current.disconnect();
+        }
+        client.shutdown();
+    }
+
+    private synchronized void connect() {
+        if (connecting || (session != null && session.isConnected())) {
+            return;
+        }
+        connecting = true;
+
+        client.connectAsync(connectHeaders, new SessionHandler()).whenComplete((connected, error) -> {
+            synchronized (this) {
+                connecting = false;
+            }
+            if (error != null) {
+                log.warn("Cluster bus connection failed: {}", error.getMessage());
+                scheduleReconnect();
+            }
+        });
+    }
+
+    private void scheduleReconnect() {
+        if (!reconnector.isShutdown()) {
+            reconnector.schedule(this::connect, RECONNECT_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void receive(String payload) {
+        ClusterBatch batch;
+        try {
+            batch = objectMapper.readValue(payload, ClusterBatch.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding malformed cluster batch", e);
+            return;
+        }
+        listeners.forEach(listener -> listener.accept(batch));
+    }
+
+    private class SessionHandler extends StompSessionHandlerAdapter {
+
+        @Override
+        public void afterConnected(StompSession connected, StompHeaders connectedHeaders) {
+            connected.subscribe(destination, new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return String.class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    receive((String) payload);
+                }
+            });
+            session = connected;
+            log.info("Cluster bus connected, listening on {}", destination);
+        }
+
+        @Override
+        public void handleException(StompSession failed, StompCommand command, StompHeaders headers,
+                                    byte[] payload, Throwable exception) {
+            log.warn("Cluster bus frame handling failed", exception);
+        }
+
+        @Override
+        public void handleTransportError(StompSession failed, Throwable exception) {
+            log.warn("Cluster bus connection lost: {}", exception.getMessage());
+            session = null;
+            scheduleReconnect();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.minegolem.fantaprof.utils;
 
+import com.minegolem.fantaprof.repository.TeamRepository;
 import com.minegolem.fantaprof.repository.UserRepository;
 import com.minegolem.fantaprof.repository.database.User;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -18,9 +19,11 @@ import java.util.List;
 public class CustomAuthenticationProvider implements AuthenticationProvider {
 
     private final UserRepository userRepository;
+    private final TeamRepository teamRepository;
 
-    public CustomAuthenticationProvider(UserRepository userRepository) {
+    public CustomAuthenticationProvider(UserRepository userRepository, TeamRepository teamRepository) {
         this.userRepository = userRepository;
+        this.teamRepository = teamRepository;
     }
 
     @Override
@@ -43,7 +46,11 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
         List<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority("ROLE_" + user.getRole()));
 
-        return new UsernamePasswordAuthenticationToken(username, password, authorities);
+        // Id, ruolo e squadra restano nel principal per tutta la sessione
+        FantaPrincipal principal = new FantaPrincipal(user.getId(), user.getUsername(), user.getRole(),
+                teamRepository.findTeamNameByUserId(user.getId()));
+
+        return new UsernamePasswordAuthenticationToken(principal, password, authorities);
     }
 
     @Override
@@ -0,0 +1,46 @@
+package com.minegolem.fantaprof.utils;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.Serializable;
+import java.security.Principal;
+
+/**
+ * Utente autenticato: id, ruolo e squadra vengono letti una sola volta al login,
+ * così le richieste successive non devono cercare l'utente nel database.
+ */
+@Getter
+@RequiredArgsConstructor
+public class FantaPrincipal implements Principal, Serializable {
+
+    private final Long userId;
+    private final String username;
+    private final String role;
+
+    // Unico campo che cambia durante la sessione: viene impostato alla creazione della squadra
+    private volatile String teamName;
+
+    public FantaPrincipal(Long userId, String username, String role, String teamName) {
+        this(userId, username, role);
+        this.teamName = teamName;
+    }
+
+    public boolean hasTeam() {
+        return teamName != null;
+    }
+
+    public void setTeamName(String teamName) {
+        this.teamName = teamName;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
@@ -1,25 +1,29 @@
 package com.minegolem.fantaprof.utils;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.List;
 
 import static com.minegolem.fantaprof.utils.SecurityConstants.*;
 
 public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
 
-    public JWTAuthorizationFilter(AuthenticationManager authManager) {
+    private final JWTTokenService tokenService;
+
+    public JWTAuthorizationFilter(AuthenticationManager authManager, JWTTokenService tokenService) {
         super(authManager);
+        this.tokenService = tokenService;
     }
 
     @Override
@@ -27,37 +31,50 @@ public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
                                     HttpServletResponse res,
                                     FilterChain chain) throws IOException, ServletException {
         String header = req.getHeader(HEADER_STRING);
+        boolean fromHeader = header != null && header.startsWith(TOKEN_PREFIX);
+        String token = fromHeader ? header.substring(TOKEN_PREFIX.length()) : cookieToken(req);
 
-        if (header == null || !header.startsWith(TOKEN_PREFIX)) {
+        DecodedJWT jwt = token == null ? null : tokenService.verify(token);
+        if (jwt == null || jwt.getSubject() == null) {
             chain.doFilter(req, res);
             return;
         }
 
-        UsernamePasswordAuthenticationToken authentication = getAuthentication(req);
+        UsernamePasswordAuthenticationToken authentication = getAuthentication(jwt);
+        // Il browser non sa rinnovare il token da solo: il cookie si riemette prima che scada
+        if (!fromHeader && tokenService.needsRefresh(jwt)) {
+            res.addCookie(tokenService.cookie(tokenService.issue((FantaPrincipal) authentication.getPrincipal())));
+        }
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         chain.doFilter(req, res);
     }
 
-    // Reads the JWT from the Authorization header, and then uses JWT to validate the token
-    private UsernamePasswordAuthenticationToken getAuthentication(HttpServletRequest request) {
-        String token = request.getHeader(HEADER_STRING);
-
-        if (token != null) {
-            // parse the token.
-            String user = JWT.require(Algorithm.HMAC512(SECRET.getBytes()))
-                    .build()
-                    .verify(token.replace(TOKEN_PREFIX, ""))
-                    .getSubject();
-
-            if (user != null) {
-                // new arraylist means authorities
-                return new UsernamePasswordAuthenticationToken(user, null, new ArrayList<>());
+    // Per le pagine del browser il token arriva nel cookie invece che nell'header Authorization
+    private String cookieToken(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (TOKEN_COOKIE.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
             }
-
-            return null;
         }
 
         return null;
     }
-}
\ No newline at end of file
+
+    // Principal costruito dai claim del token già verificato, senza accedere al database
+    private UsernamePasswordAuthenticationToken getAuthentication(DecodedJWT jwt) {
+        String user = jwt.getSubject();
+        String role = jwt.getClaim(ROLE_CLAIM).asString();
+        FantaPrincipal principal = new FantaPrincipal(jwt.getClaim(USER_ID_CLAIM).asLong(), user, role,
+                jwt.getClaim(TEAM_CLAIM).asString());
+
+        List<SimpleGrantedAuthority> authorities = role == null
+                ? List.of()
+                : List.of(new SimpleGrantedAuthority("ROLE_" + role));
+
+        return new UsernamePasswordAuthenticationToken(principal, null, authorities);
+    }
+}
@@ -0,0 +1,111 @@
+package com.minegolem.fantaprof.utils;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static com.minegolem.fantaprof.utils.SecurityConstants.*;
+
+/**
+ * Emissione e verifica dei JWT. Il segreto HMAC arriva dalla configurazione (fantaprof.security.jwt-secret,
+ * oppure la variabile d'ambiente FANTAPROF_SECURITY_JWT_SECRET) e non è mai nel codice: in modalità stateless
+ * il ruolo del token è l'unica autorizzazione, quindi senza un segreto valido il nodo non parte.
+ */
+@Slf4j
+@Component
+public class JWTTokenService {
+
+    // HMAC-SHA512: la chiave deve essere lunga almeno quanto l'hash
+    static final int MIN_SECRET_BYTES = 64;
+
+    @Value("${fantaprof.security.jwt-secret:}")
+    private String secret;
+
+    @Value("${fantaprof.security.stateless:false}")
+    private boolean stateless;
+
+    @Value("${fantaprof.security.token-ttl:PT15M}")
+    private Duration ttl;
+
+    @Value("${fantaprof.security.cookie-secure:true}")
+    private boolean secureCookie;
+
+    private Algorithm algorithm;
+    private JWTVerifier verifier;
+
+    @PostConstruct
+    void init() {
+        byte[] key = secret == null ? new byte[0] : secret.getBytes(StandardCharsets.UTF_8);
+        if (key.length < MIN_SECRET_BYTES) {
+            if (stateless) {
+                throw new IllegalStateException("fantaprof.security.jwt-secret must be set to at least "
+                        + MIN_SECRET_BYTES + " bytes when fantaprof.security.stateless=true");
+            }
+            // Con le sessioni il token non autorizza nulla: basta un segreto casuale valido solo per questo processo
+            key = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(key);
+            log.debug("No JWT secret configured, using a random per-process key");
+        }
+
+        algorithm = Algorithm.HMAC512(key);
+        // Il verificatore è thread-safe: viene creato una volta sola e riusato per ogni richiesta
+        verifier = JWT.require(algorithm).build();
+    }
+
+    public String issue(FantaPrincipal principal) {
+        return JWT.create()
+                .withSubject(principal.getUsername())
+                .withClaim(ROLE_CLAIM, principal.getRole())
+                .withClaim(USER_ID_CLAIM, principal.getUserId())
+                .withClaim(TEAM_CLAIM, principal.getTeamName())
+                .withExpiresAt(Date.from(Instant.now().plus(ttl)))
+                .sign(algorithm);
+    }
+
+    // null se la firma non è valida o il token è scaduto
+    public DecodedJWT verify(String token) {
+        try {
+            return verifier.verify(token);
+        } catch (JWTVerificationException e) {
+            return null;
+        }
+    }
+
+    // Scadenza scorrevole: oltre metà della durata il browser riceve un token nuovo con le stesse informazioni
+    public boolean needsRefresh(DecodedJWT jwt) {
+        return jwt.getExpiresAt() != null
+                && Duration.between(Instant.now(), jwt.getExpiresAt().toInstant()).compareTo(ttl.dividedBy(2)) < 0;
+    }
+
+    // Solo in modalità stateless: con le sessioni il cookie non viene letto da nessuno
+    public void reissue(FantaPrincipal principal, HttpServletResponse response) {
+        if (stateless) {
+            response.addCookie(cookie(issue(principal)));
+        }
+    }
+
+    // CSRF è disabilitato: SameSite=Lax impedisce che il cookie parta con i POST di altri siti
+    public Cookie cookie(String token) {
+        Cookie cookie = new Cookie(TOKEN_COOKIE, token);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(secureCookie);
+        cookie.setAttribute("SameSite", "Lax");
+        cookie.setPath("/");
+        cookie.setMaxAge((int) ttl.toSeconds());
+        return cookie;
+    }
+}
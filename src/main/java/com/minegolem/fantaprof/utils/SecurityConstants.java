@@ -2,9 +2,11 @@ package com.minegolem.fantaprof.utils;
 
 public class SecurityConstants {
 
-    public static final String SECRET = "SECRET_KEY";
-    public static final long EXPIRATION_TIME = 900_000; // 15 mins
     public static final String TOKEN_PREFIX = "Bearer ";
     public static final String HEADER_STRING = "Authorization";
+    public static final String TOKEN_COOKIE = "FANTAPROF_TOKEN";
+    public static final String ROLE_CLAIM = "role";
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String TEAM_CLAIM = "team";
     public static final String SIGN_UP_URL = "/api/user/add";
 }
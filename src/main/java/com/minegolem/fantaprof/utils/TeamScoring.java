@@ -0,0 +1,25 @@
+package com.minegolem.fantaprof.utils;
+
+import com.minegolem.fantaprof.utils.dto.TeamScoreDTO;
+
+import java.util.Comparator;
+
+// Regole di punteggio delle squadre, usate da classifica, pagina della squadra e totali salvati
+public final class TeamScoring {
+
+    public static final int CAPTAIN_MULTIPLIER = 2;
+
+    // Ordine della classifica: a parità di punti vince l'id minore. Lo stesso ORDER BY della classifica
+    // letta dal database (UserRepository.findRanking), così le due modalità danno le stesse posizioni
+    public static final Comparator<TeamScoreDTO> RANKING_ORDER = Comparator
+            .comparingLong(TeamScoreDTO::getScore).reversed()
+            .thenComparing(TeamScoreDTO::getTeamId);
+
+    private TeamScoring() {
+    }
+
+    // Punti portati alla squadra da un professore (moltiplicati per il capitano)
+    public static long memberScore(long score, boolean captain) {
+        return captain ? score * CAPTAIN_MULTIPLIER : score;
+    }
+}
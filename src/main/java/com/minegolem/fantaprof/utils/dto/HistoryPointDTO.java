@@ -0,0 +1,14 @@
+package com.minegolem.fantaprof.utils.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@RequiredArgsConstructor
+public class HistoryPointDTO {
+    private final int round;
+    private final LocalDateTime closedAt;
+    private final long score;
+}
@@ -0,0 +1,13 @@
+package com.minegolem.fantaprof.utils.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class LeaderboardDeltaDTO {
+    private final long version;
+    private final List<TeamDeltaDTO> teams;
+}
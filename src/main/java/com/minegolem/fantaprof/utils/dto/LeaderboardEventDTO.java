@@ -0,0 +1,59 @@
+package com.minegolem.fantaprof.utils.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntUnaryOperator;
+
+@Getter
+@RequiredArgsConstructor
+public class LeaderboardEventDTO {
+
+    public enum EventType {
+        SCORE,
+        PROFESSOR_ADDED,
+        PROFESSOR_REMOVED,
+        TEAM_CREATED
+    }
+
+    private final EventType type;
+    private final long version;
+    // Versione su cui si applica l'evento: version - 1, oppure meno per gli eventi accorpati
+    private final long baseVersion;
+    private final Long professorId;
+    private final Map<Long, Integer> scores;
+    private final List<TeamDeltaDTO> teams;
+
+    // Accorpa un evento successivo dello stesso tipo: punteggi e squadre prendono l'ultimo valore.
+    // Le posizioni restano quelle tra baseVersion e la versione finale anche per le squadre toccate da un solo evento
+    public LeaderboardEventDTO merge(LeaderboardEventDTO next) {
+        Map<Long, Integer> mergedScores = new HashMap<>(scores);
+        mergedScores.putAll(next.scores);
+
+        IntUnaryOperator afterNext = TeamDeltaDTO.rankShift(next.teams, true);
+        IntUnaryOperator beforeThis = TeamDeltaDTO.rankShift(teams, false);
+
+        Map<Long, TeamDeltaDTO> mergedTeams = new LinkedHashMap<>();
+        teams.forEach(team -> mergedTeams.put(team.getTeamId(), team.withRank(afterNext.applyAsInt(team.getRank()))));
+        next.teams.forEach(team -> {
+            TeamDeltaDTO first = mergedTeams.get(team.getTeamId());
+            int previousRank;
+            if (first != null) {
+                previousRank = first.getPreviousRank();
+            } else {
+                previousRank = team.getPreviousRank() == 0 ? 0 : beforeThis.applyAsInt(team.getPreviousRank());
+            }
+            mergedTeams.put(team.getTeamId(), new TeamDeltaDTO(
+                    team.getTeamId(), team.getName(), team.getTotal(), team.getRank(), previousRank));
+        });
+
+        return new LeaderboardEventDTO(type, next.version, baseVersion,
+                Objects.equals(professorId, next.professorId) ? professorId : null,
+                Map.copyOf(mergedScores), List.copyOf(mergedTeams.values()));
+    }
+}
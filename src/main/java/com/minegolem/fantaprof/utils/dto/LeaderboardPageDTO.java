@@ -0,0 +1,23 @@
+package com.minegolem.fantaprof.utils.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class LeaderboardPageDTO {
+    private final long version;
+    // memory: versione degli eventi del nodo, a cui si applicano i delta; database: versione condivisa
+    // tra i nodi, non confrontabile con quella degli eventi (il client rilegge la pagina)
+    private final String source;
+    private final int page;
+    private final int size;
+    private final int totalTeams;
+    private final List<RankedTeamDTO> teams;
+
+    public int getTotalPages() {
+        return size == 0 ? 0 : (totalTeams + size - 1) / size;
+    }
+}
@@ -0,0 +1,14 @@
+package com.minegolem.fantaprof.utils.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class MemberScoreDTO {
+    private final Long professorId;
+    private final int score;
+    private final boolean captain;
+    // Punti portati alla squadra (doppi per il capitano)
+    private final long points;
+}
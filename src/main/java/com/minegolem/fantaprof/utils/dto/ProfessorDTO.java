@@ -0,0 +1,22 @@
+package com.minegolem.fantaprof.utils.dto;
+
+import com.minegolem.fantaprof.repository.database.Professor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class ProfessorDTO {
+    private final Long id;
+    private final String name;
+    private final int cost;
+    private final int score;
+
+    public static ProfessorDTO of(Professor professor) {
+        return new ProfessorDTO(professor.getId(), professor.getName(), professor.getCost(), professor.getScore());
+    }
+
+    public ProfessorDTO withScore(int newScore) {
+        return new ProfessorDTO(id, name, cost, newScore);
+    }
+}
@@ -0,0 +1,13 @@
+package com.minegolem.fantaprof.utils.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class RankedTeamDTO {
+    private final int rank;
+    private final Long teamId;
+    private final String name;
+    private final Long score;
+}
@@ -0,0 +1,14 @@
+package com.minegolem.fantaprof.utils.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScoreEntryDTO {
+    private Long professorId;
+    private String eventKey;
+    private Integer delta;
+}
@@ -0,0 +1,15 @@
+package com.minegolem.fantaprof.utils.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScoringRuleDTO {
+    private long id;
+    private String key;
+    private String label;
+    private int points;
+}
@@ -0,0 +1,63 @@
+package com.minegolem.fantaprof.utils.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Getter
+public class ScoringRulesDTO {
+    private final long version;
+    private final List<ScoringRuleDTO> rules;
+
+    @JsonIgnore
+    private final Map<String, ScoringRuleDTO> byKey;
+    @JsonIgnore
+    private final Map<Long, ScoringRuleDTO> byId;
+    // La versione è un contatore del singolo nodo: l'ETag usa l'hash del contenuto, uguale su tutti i nodi e ai riavvii
+    @JsonIgnore
+    private final String contentHash;
+
+    public ScoringRulesDTO(long version, List<ScoringRuleDTO> rules) {
+        this.version = version;
+        this.rules = List.copyOf(rules);
+        // Chiavi e id unici: li verifica ScoringRuleRegistry prima di costruire il catalogo
+        this.byKey = rules.stream().collect(Collectors.toUnmodifiableMap(ScoringRuleDTO::getKey, Function.identity()));
+        this.byId = rules.stream().collect(Collectors.toUnmodifiableMap(ScoringRuleDTO::getId, Function.identity()));
+        this.contentHash = hash(this.rules);
+    }
+
+    public Optional<ScoringRuleDTO> findByKey(String key) {
+        return Optional.ofNullable(byKey.get(key));
+    }
+
+    public Optional<ScoringRuleDTO> findById(long id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    @JsonIgnore
+    public String getETag() {
+        return "\"rules-" + contentHash + "\"";
+    }
+
+    private static String hash(List<ScoringRuleDTO> rules) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (ScoringRuleDTO rule : rules) {
+                String line = rule.getId() + "\u0000" + rule.getKey() + "\u0000" + rule.getLabel() + "\u0000" + rule.getPoints() + "\n";
+                digest.update(line.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
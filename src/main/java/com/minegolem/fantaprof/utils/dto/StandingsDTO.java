@@ -0,0 +1,15 @@
+package com.minegolem.fantaprof.utils.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class StandingsDTO {
+    private final int round;
+    private final LocalDateTime closedAt;
+    private final List<TeamScoreDTO> leaderboard;
+}
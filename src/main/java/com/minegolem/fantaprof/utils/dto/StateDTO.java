@@ -0,0 +1,14 @@
+package com.minegolem.fantaprof.utils.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class StateDTO {
+    private final long version;
+    private final List<ProfessorDTO> professors;
+    private final List<TeamScoreDTO> leaderboard;
+}
@@ -0,0 +1,55 @@
+package com.minegolem.fantaprof.utils.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+@Getter
+@RequiredArgsConstructor
+public class TeamDeltaDTO {
+    private final Long teamId;
+    private final String name;
+    private final Long total;
+    private final int rank;
+    // 0 per una squadra appena creata
+    private final int previousRank;
+
+    public TeamDeltaDTO withRank(int newRank) {
+        return new TeamDeltaDTO(teamId, name, total, newRank, previousRank);
+    }
+
+    /**
+     * Posizione di una squadra non toccata da un evento, dato l'elenco delle squadre toccate. Le squadre non toccate
+     * mantengono l'ordine relativo e occupano, in ordine, le posizioni lasciate libere da quelle toccate.
+     * forward: dalla posizione prima dell'evento a quella dopo; altrimenti il contrario.
+     */
+    public static IntUnaryOperator rankShift(List<TeamDeltaDTO> moved, boolean forward) {
+        int[] from = moved.stream()
+                .mapToInt(forward ? TeamDeltaDTO::getPreviousRank : TeamDeltaDTO::getRank)
+                .filter(rank -> rank > 0)
+                .sorted()
+                .toArray();
+        int[] to = moved.stream()
+                .mapToInt(forward ? TeamDeltaDTO::getRank : TeamDeltaDTO::getPreviousRank)
+                .filter(rank -> rank > 0)
+                .sorted()
+                .toArray();
+
+        return rank -> {
+            int index = Arrays.binarySearch(from, rank);
+            int untouchedAhead = rank - 1 - (index >= 0 ? index : -index - 1);
+
+            int result = untouchedAhead + 1;
+            for (int occupied : to) {
+                if (occupied > result) {
+                    break;
+                }
+                result++;
+            }
+            return result;
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.minegolem.fantaprof.utils.dto;
+
+import com.minegolem.fantaprof.utils.TeamScoring;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class TeamMemberDTO {
+    private final String teamName;
+    private final boolean captain;
+    private final Long id;
+    private final String name;
+    private final int cost;
+    private final int score;
+
+    // Punti portati alla squadra
+    public long getPoints() {
+        return TeamScoring.memberScore(score, captain);
+    }
+}
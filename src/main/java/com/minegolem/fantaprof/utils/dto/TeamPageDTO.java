@@ -0,0 +1,32 @@
+package com.minegolem.fantaprof.utils.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class TeamPageDTO {
+    private final String name;
+    private final Long captainId;
+    private final List<TeamMemberDTO> members;
+    private final long total;
+
+    public static TeamPageDTO of(List<TeamMemberDTO> members) {
+        if (members.isEmpty()) {
+            return new TeamPageDTO(null, null, members, 0);
+        }
+
+        Long captainId = null;
+        long total = 0;
+        for (TeamMemberDTO member : members) {
+            if (member.isCaptain()) {
+                captainId = member.getId();
+            }
+            total += member.getPoints();
+        }
+
+        return new TeamPageDTO(members.get(0).getTeamName(), captainId, members, total);
+    }
+}
@@ -0,0 +1,16 @@
+package com.minegolem.fantaprof.utils.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class TeamRankDTO {
+    private final long version;
+    private final Long teamId;
+    private final int rank;
+    private final int totalTeams;
+    private final List<RankedTeamDTO> around;
+}
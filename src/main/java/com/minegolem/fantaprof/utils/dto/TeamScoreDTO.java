@@ -1,9 +1,12 @@
 package com.minegolem.fantaprof.utils.dto;
 
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
+@Getter
 @RequiredArgsConstructor
 public class TeamScoreDTO {
+    private final Long teamId;
     private final String name;
     private final Long score;
 }
@@ -0,0 +1,17 @@
+package com.minegolem.fantaprof.utils.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class TeamUpdateDTO {
+    @JsonIgnore
+    private final Long userId;
+    private final String teamName;
+    private final long total;
+    private final List<MemberScoreDTO> changed;
+}
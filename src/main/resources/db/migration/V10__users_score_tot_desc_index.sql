@@ -0,0 +1,3 @@
+-- La classifica ordina per score_tot DESC, id ASC: l'indice di V5 (entrambe crescenti) non copre l'ordine misto
+create index idx_users_score_tot_desc on users (score_tot desc, id);
+drop index idx_users_score_tot on users;
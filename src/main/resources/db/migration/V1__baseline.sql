@@ -0,0 +1,28 @@
+-- Schema iniziale (prima del registro punteggi). Sui database già esistenti viene saltato:
+-- spring.flyway.baseline-on-migrate li marca alla versione 1 e applica solo le successive.
+create table professors (
+    id bigint not null auto_increment,
+    name varchar(255) not null,
+    cost integer not null,
+    score integer not null,
+    primary key (id),
+    constraint uk_professors_name unique (name)
+) engine=InnoDB;
+
+create table teams (
+    id bigint not null auto_increment,
+    name varchar(255),
+    user_id bigint,
+    prof_id bigint,
+    captain bit not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table users (
+    id bigint not null auto_increment,
+    username varchar(255),
+    password varchar(255),
+    score_tot bigint,
+    role varchar(255),
+    primary key (id)
+) engine=InnoDB;
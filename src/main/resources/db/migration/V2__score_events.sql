@@ -0,0 +1,23 @@
+-- Registro append-only delle variazioni di punteggio e snapshot periodici per il replay
+create table score_events (
+    id bigint not null auto_increment,
+    professor_id bigint not null,
+    rule_key varchar(255),
+    delta integer not null,
+    created_at datetime(6) not null,
+    admin varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_score_events_professor on score_events (professor_id);
+
+create table score_snapshots (
+    id bigint not null auto_increment,
+    last_event_id bigint not null,
+    professor_id bigint not null,
+    score integer not null,
+    created_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_score_snapshots_event on score_snapshots (last_event_id);
@@ -0,0 +1,29 @@
+-- Giornate chiuse e punteggi congelati alla chiusura
+create table matchdays (
+    id bigint not null auto_increment,
+    round integer not null,
+    closed_at datetime(6) not null,
+    last_event_id bigint,
+    admin varchar(255),
+    primary key (id),
+    constraint uk_matchdays_round unique (round)
+) engine=InnoDB;
+
+create table matchday_scores (
+    id bigint not null,
+    round integer not null,
+    subject_type enum ('PROFESSOR','TEAM') not null,
+    subject_id bigint not null,
+    name varchar(255),
+    score bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_matchday_scores_subject on matchday_scores (subject_type, subject_id, round);
+
+-- MySQL non ha sequenze: Hibernate le emula con una tabella a riga singola
+create table matchday_scores_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into matchday_scores_seq values (1);
@@ -0,0 +1,14 @@
+-- Gli id delle squadre passano da auto_increment alla sequenza teams_seq (insert in batch)
+alter table teams modify id bigint not null;
+
+create table teams_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into teams_seq values (1);
+
+-- Un professore al massimo una volta per squadra: si tengono le righe più vecchie dei doppi invii
+delete t1 from teams t1
+    join teams t2 on t1.user_id = t2.user_id and t1.prof_id = t2.prof_id and t1.id > t2.id;
+
+alter table teams add constraint uk_teams_user_prof unique (user_id, prof_id);
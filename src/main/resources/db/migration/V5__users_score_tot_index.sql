@@ -0,0 +1,2 @@
+-- Classifica letta dal database: ORDER BY score_tot DESC, id con LIMIT scorre solo l'indice
+create index idx_users_score_tot on users (score_tot, id);
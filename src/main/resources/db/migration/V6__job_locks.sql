@@ -0,0 +1,8 @@
+-- Una riga per job periodico: il lock sulla riga decide quale nodo lo esegue
+create table job_locks (
+    name varchar(64) not null,
+    last_run_at datetime(6),
+    primary key (name)
+) engine=InnoDB;
+
+insert into job_locks (name, last_run_at) values ('score-snapshot', null);
@@ -0,0 +1,4 @@
+-- teams_seq parte sopra gli id già assegnati dall'auto_increment. Hibernate (ottimizzatore pooled,
+-- allocationSize 50) legge next_val = v e usa gli id da v - 49 a v: con max(id) + 50 il primo è max(id) + 1.
+update teams_seq
+set next_val = greatest(next_val, (select coalesce(max(id), 0) + 50 from teams));
@@ -0,0 +1,8 @@
+-- Versione della classifica letta dal database (fantaprof.leaderboard.source=database), condivisa tra i nodi
+create table leaderboard_version (
+    id integer not null,
+    version bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+insert into leaderboard_version (id, version) values (1, 0);
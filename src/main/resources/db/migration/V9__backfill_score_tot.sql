@@ -0,0 +1,5 @@
+-- Totali delle squadre create prima che users.score_tot venisse mantenuto (una volta sola, non a ogni avvio)
+update users u
+set u.score_tot = coalesce((select sum(case when t.captain = true then 2 * p.score else p.score end)
+                            from teams t join professors p on p.id = t.prof_id
+                            where t.user_id = u.id), 0);
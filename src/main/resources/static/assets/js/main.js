@@ -7,6 +7,16 @@ $(document).ready(function () {
 
     $creditDisplay.text(totalCredits);
 
+    // In modalità stateless il server richiede il token CSRF dal cookie XSRF-TOKEN nelle richieste AJAX
+    $.ajaxSetup({
+        beforeSend: function (xhr, settings) {
+            let match = document.cookie.match(/(?:^|; )XSRF-TOKEN=([^;]*)/);
+            if (match && !/^(GET|HEAD|OPTIONS)$/i.test(settings.type)) {
+                xhr.setRequestHeader("X-XSRF-TOKEN", decodeURIComponent(match[1]));
+            }
+        }
+    });
+
     // Funzione per aggiornare lo stato dei pulsanti
     function updateButtons() {
         let selectedCheckboxes = $('input[type="checkbox"]:checked').length;
@@ -154,45 +164,251 @@ $(document).ready(function () {
         $("#scores").toggleClass("hidden").data("professor-id", professorId);
     });
 
-    $(".update-score").click(function () {
-        let professorId = $("#scores").data("professor-id");
-        let score = $(this).attr("data-score");
-        let button = $(this);
+    // I punteggi inseriti in rapida successione vengono inviati insieme in un solo batch
+    let pendingScores = [];
+    let flushTimer = null;
+
+    function flushScores() {
+        let entries = pendingScores;
+        pendingScores = [];
+        flushTimer = null;
 
         $.ajax({
-            url: "/api/admin/modifyscore/" + professorId + "/" + score,
-            type: "PUT",
-            success: function (response) {
-                location.reload();
-            },
+            url: "/api/admin/scores",
+            type: "POST",
+            contentType: "application/json",
+            data: JSON.stringify(entries),
             error: function (xhr) {
-                button.prop("disabled", false); // Riabilita il pulsante in caso di errore
+                $(".update-score").prop("disabled", false); // Riabilita i pulsanti in caso di errore
                 console.error("Errore durante l'aggiornamento del punteggio:", xhr.responseText);
             }
         });
+    }
+
+    $(".update-score").click(function () {
+        let professorId = $("#scores").data("professor-id");
+        let ruleKey = $(this).attr("data-rule");
+
+        pendingScores.push({professorId: professorId, eventKey: ruleKey});
+        if (flushTimer === null) {
+            flushTimer = setTimeout(flushScores, 300);
+        }
+
+        // Il nuovo punteggio arriva a tutti i client tramite WebSocket
+        $("#scores").addClass("hidden");
     });
 
-    // WebSocket per aggiornamenti in tempo reale
+    // Stato locale: solo la finestra di classifica mostrata dalla pagina, caricata dall'API paginata
+    // e aggiornata con i delta. Un salto di versione riallinea solo quella finestra
+    let stateVersion = 0;
+    // memory: i delta si applicano alla pagina; database: la versione della pagina è quella condivisa
+    // tra i nodi, non confrontabile con quella degli eventi, e ogni evento rilegge la finestra
+    let stateSource = 'memory';
+    let leaderboard = {};
+    let totalTeams = 0;
+    let resyncTimer = null;
+
+    function rankClass(rank) {
+        if (rank === 1) return 'text-yellow-400';
+        if (rank === 2) return 'text-gray-300';
+        if (rank === 3) return 'text-yellow-800';
+        return 'text-white';
+    }
+
+    // La pagina mostra solo le posizioni (offset, offset + size]; null se non c'è la classifica
+    function leaderboardWindow() {
+        let $leaderboard = $('#leaderboard');
+        if ($leaderboard.length === 0) return null;
+        return {
+            offset: parseInt($leaderboard.attr('data-offset'), 10) || 0,
+            size: parseInt($leaderboard.attr('data-size'), 10) || 50
+        };
+    }
+
+    function renderLeaderboard() {
+        let $leaderboard = $('#leaderboard');
+        if ($leaderboard.length === 0) return;
+
+        let teams = Object.values(leaderboard).sort(function (a, b) {
+            return a.rank - b.rank;
+        });
+
+        $leaderboard.empty();
+        teams.forEach(function (team) {
+            let $row = $('<div class="bg-gray-600 w-full flex flex-col rounded-lg p-4 shadow-md">')
+                .attr('data-team-id', team.teamId);
+            let $inner = $('<div class="flex justify-between items-center w-full">');
+            $inner.append($('<span class="text-lg font-bold rank">').addClass(rankClass(team.rank)).text(team.rank + '°'));
+            $inner.append($('<h1 class="text-white text-md font-semibold team-name">').text(team.name));
+            $inner.append($('<span class="flex justify-center items-center rounded-lg bg-yellow-400 px-4 py-2 shadow-sm">')
+                .append($('<h1 class="text-black text-sm font-bold team-score">').text(team.total)));
+            $row.append($inner);
+            $leaderboard.append($row);
+        });
+    }
+
+    function updateTeamTotal() {
+        let total = 0;
+        $('.prof-score').each(function () {
+            total += parseInt($(this).text(), 10) || 0;
+        });
+        $('#totalScore').text(total);
+    }
+
+    function applyPage(page) {
+        // Una risposta più vecchia arrivata dopo una più recente non sovrascrive la finestra
+        if (page.source === 'database' && page.version < stateVersion) return;
+        stateSource = page.source;
+        stateVersion = page.version;
+        totalTeams = page.totalTeams;
+        leaderboard = {};
+        if (leaderboardWindow() === null) return;
+        page.teams.forEach(function (team) {
+            leaderboard[team.teamId] = {teamId: team.teamId, name: team.name, total: team.score, rank: team.rank};
+        });
+        renderLeaderboard();
+    }
+
+    function applyProfessorScore(professorId, score) {
+        let $row = $(".prof-score").closest("div[data-id='" + professorId + "']");
+        if ($row.length === 0) return;
+        let captain = $row.attr('data-captain') === 'true';
+        $row.find('.prof-score').text(captain ? score * 2 : score);
+    }
+
+    // Senza classifica nella pagina basta la versione corrente (pagina da una squadra);
+    // i punteggi dei professori si rileggono solo dove sono mostrati
+    function loadState() {
+        resyncTimer = null;
+        let view = leaderboardWindow();
+        let params = view === null ? {page: 0, size: 1} : {page: Math.floor(view.offset / view.size), size: view.size};
+        $.getJSON('/api/v1/leaderboard', params, applyPage);
+
+        if ($('.prof-score').length > 0) {
+            $.getJSON('/api/v1/professors', function (catalog) {
+                catalog.professors.forEach(function (professor) {
+                    applyProfessorScore(professor.id, professor.score);
+                });
+                updateTeamTotal();
+            });
+        }
+    }
+
+    // Più salti di versione ravvicinati producono un solo riallineamento
+    function scheduleResync() {
+        if (resyncTimer === null) {
+            resyncTimer = setTimeout(loadState, 200);
+        }
+    }
+
+    // Applica un delta; se manca una versione intermedia riallinea la finestra
+    function applyEvent(event) {
+        if (stateSource === 'database') {
+            scheduleResync();
+            return true;
+        }
+        if (event.version <= stateVersion) return false;
+        // Gli eventi accorpati dal server coprono più versioni: si applicano se partono da una già vista
+        let baseVersion = event.baseVersion !== undefined ? event.baseVersion : event.version - 1;
+        if (baseVersion > stateVersion) {
+            scheduleResync();
+            return false;
+        }
+        stateVersion = event.version;
+
+        let view = leaderboardWindow();
+        if (view === null) return true;
+
+        // Il delta contiene solo le squadre toccate: le altre si spostano nelle posizioni rimaste libere
+        let shift = rankShift(event.teams);
+        let touched = {};
+        event.teams.forEach(function (team) {
+            touched[team.teamId] = true;
+        });
+        $.each(leaderboard, function (teamId, team) {
+            if (!touched[teamId]) team.rank = shift(team.rank);
+        });
+        event.teams.forEach(function (team) {
+            if (team.previousRank === 0) totalTeams++;
+            leaderboard[team.teamId] = {teamId: team.teamId, name: team.name, total: team.total, rank: team.rank};
+        });
+
+        let last = view.offset + view.size;
+        Object.keys(leaderboard).forEach(function (teamId) {
+            let rank = leaderboard[teamId].rank;
+            if (rank <= view.offset || rank > last) delete leaderboard[teamId];
+        });
+        // Una posizione della finestra è passata a una squadra che da qui non si conosce
+        let expected = Math.max(0, Math.min(last, totalTeams) - view.offset);
+        if (Object.keys(leaderboard).length < expected) scheduleResync();
+
+        renderLeaderboard();
+        return true;
+    }
+
+    // Stessa regola di TeamDeltaDTO.rankShift: le squadre non toccate mantengono l'ordine relativo
+    // e occupano, in ordine, le posizioni non prese da quelle toccate
+    function rankShift(moved) {
+        let from = moved.map(function (team) { return team.previousRank; })
+            .filter(function (rank) { return rank > 0; })
+            .sort(function (a, b) { return a - b; });
+        let to = moved.map(function (team) { return team.rank; })
+            .sort(function (a, b) { return a - b; });
+
+        return function (rank) {
+            let ahead = from.filter(function (previous) { return previous < rank; }).length;
+            let result = rank - ahead;
+            for (let i = 0; i < to.length && to[i] <= result; i++) {
+                result++;
+            }
+            return result;
+        };
+    }
+
     let socket = new SockJS('/ws');
     let stompClient = Stomp.over(socket);
 
     stompClient.connect({}, function (options) {
+        loadState();
+
         stompClient.subscribe('/topic/orders/delete', function (message) {
-            let professorId = message.body;
-            $("div[data-id='" + professorId + "']").remove();
-            location.reload();
+            let event = JSON.parse(message.body);
+            $("div[data-id='" + event.professorId + "']").remove();
+            applyEvent(event);
+            updateTeamTotal();
+        });
+
+        stompClient.subscribe('/topic/orders/save', function (message) {
+            let event = JSON.parse(message.body);
+            if (!applyEvent(event)) return;
+            // Solo le pagine con la lista dei professori devono mostrare quello nuovo
+            if ($('#professor-list').length > 0) {
+                location.reload();
+            }
         });
 
-        stompClient.subscribe('/topic/orders/save', function () {
-            location.reload();
+        stompClient.subscribe('/topic/orders/modifyScore', function (message) {
+            let event = JSON.parse(message.body);
+            if (!applyEvent(event)) return;
+            // La pagina della squadra riceve il proprio totale su /user/queue/team
+            if ($('#totalScore').length > 0) return;
+            $.each(event.scores, function (professorId, score) {
+                applyProfessorScore(professorId, score);
+            });
+            updateTeamTotal();
         });
 
-        stompClient.subscribe('/topic/orders/modifyScore', function () {
-            location.reload();
+        stompClient.subscribe('/topic/orders/creaSquadra', function (message) {
+            applyEvent(JSON.parse(message.body));
         });
 
-        stompClient.subscribe('/topic/orders/creaSquadra', function () {
-            location.reload();
+        // Totale della propria squadra calcolato dal server (bonus capitano incluso)
+        stompClient.subscribe('/user/queue/team', function (message) {
+            let update = JSON.parse(message.body);
+            update.changed.forEach(function (member) {
+                $("div[data-id='" + member.professorId + "']").find('.prof-score').text(member.points);
+            });
+            $('#totalScore').text(update.total);
         });
     });
 
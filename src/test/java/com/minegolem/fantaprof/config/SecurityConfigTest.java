@@ -0,0 +1,96 @@
+package com.minegolem.fantaprof.config;
+
+import com.minegolem.fantaprof.controller.AdminController;
+import com.minegolem.fantaprof.service.HistoryService;
+import com.minegolem.fantaprof.service.ProfessorService;
+import com.minegolem.fantaprof.service.ScoringRuleRegistry;
+import com.minegolem.fantaprof.service.TeamService;
+import com.minegolem.fantaprof.service.UserService;
+import com.minegolem.fantaprof.utils.CustomAuthenticationProvider;
+import com.minegolem.fantaprof.utils.JWTTokenService;
+import com.minegolem.fantaprof.utils.dto.ScoringRulesDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrlPattern;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Regole su /api/admin/** e sulle metriche: solo il ruolo ADMIN (o lo scraper), gli anonimi vanno al login e gli utenti ricevono 403
+@WebMvcTest(controllers = AdminController.class, properties = "fantaprof.metrics.scrape-token=scrape-secret")
+@Import(SecurityConfig.class)
+class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockitoBean
+    private ProfessorService professorService;
+    @MockitoBean
+    private ScoringRuleRegistry scoringRuleRegistry;
+    @MockitoBean
+    private HistoryService historyService;
+    @MockitoBean
+    private TeamService teamService;
+    @MockitoBean
+    private UserService userService;
+    @MockitoBean
+    private CustomAuthenticationProvider customAuthenticationProvider;
+    @MockitoBean
+    private JWTTokenService tokenService;
+
+    @BeforeEach
+    void setUp() {
+        when(scoringRuleRegistry.getRules()).thenReturn(new ScoringRulesDTO(1, List.of()));
+    }
+
+    @Test
+    void anonymousIsSentToLogin() throws Exception {
+        mvc.perform(get("/api/admin/rules"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrlPattern("**/login"));
+        verifyNoInteractions(scoringRuleRegistry);
+    }
+
+    @Test
+    void userWithoutAdminRoleIsForbidden() throws Exception {
+        mvc.perform(get("/api/admin/rules").with(user("mario").roles("USER")))
+                .andExpect(status().isForbidden());
+        mvc.perform(post("/api/admin/scores").with(user("mario").roles("USER"))
+                        .contentType("application/json").content("[]"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(professorService);
+    }
+
+    @Test
+    void adminIsAllowed() throws Exception {
+        mvc.perform(get("/api/admin/rules").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void prometheusNeedsAdminOrScrapeToken() throws Exception {
+        mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().is3xxRedirection());
+        mvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer wrong"))
+                .andExpect(status().is3xxRedirection());
+        mvc.perform(get("/actuator/prometheus").with(user("mario").roles("USER")))
+                .andExpect(status().isForbidden());
+        // L'endpoint non esiste nello slice MVC: 404 vuol dire che la sicurezza ha lasciato passare
+        mvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer scrape-secret"))
+                .andExpect(status().isNotFound());
+        mvc.perform(get("/actuator/prometheus").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isNotFound());
+    }
+}
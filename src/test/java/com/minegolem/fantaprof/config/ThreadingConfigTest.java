@@ -0,0 +1,59 @@
+package com.minegolem.fantaprof.config;
+
+import org.apache.coyote.http11.Http11NioProtocol;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// La proprietà decide all'avvio, anche quando il contesto è stato generato da AOT con i virtual thread spenti
+class ThreadingConfigTest {
+
+    @Test
+    void virtualThreadsSwitchTomcatAtRuntime() {
+        Http11NioProtocol protocol = new Http11NioProtocol();
+
+        customizer(true).customize(protocol);
+
+        assertThat(protocol.getExecutor()).isInstanceOf(VirtualThreadExecutor.class);
+    }
+
+    @Test
+    void platformThreadsLeaveTheDefaultPool() {
+        Http11NioProtocol protocol = new Http11NioProtocol();
+
+        customizer(false).customize(protocol);
+
+        assertThat(protocol.getExecutor()).isNull();
+    }
+
+    @Test
+    void sseSenderFollowsTheSwitch() throws Exception {
+        assertThat(senderThread(true).isVirtual()).isTrue();
+        assertThat(senderThread(false).isVirtual()).isFalse();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TomcatProtocolHandlerCustomizer<Http11NioProtocol> customizer(boolean virtualThreads) {
+        return (TomcatProtocolHandlerCustomizer<Http11NioProtocol>) config(virtualThreads).virtualThreadsProtocolHandlerCustomizer();
+    }
+
+    private static Thread senderThread(boolean virtualThreads) throws Exception {
+        ExecutorService sender = config(virtualThreads).sseSenderExecutor(2);
+        try {
+            return sender.submit(Thread::currentThread).get();
+        } finally {
+            sender.shutdownNow();
+        }
+    }
+
+    private static ThreadingConfig config(boolean virtualThreads) {
+        ThreadingConfig config = new ThreadingConfig();
+        ReflectionTestUtils.setField(config, "virtualThreads", virtualThreads);
+        return config;
+    }
+}
@@ -0,0 +1,92 @@
+package com.minegolem.fantaprof.controller;
+
+import com.minegolem.fantaprof.config.SecurityConfig;
+import com.minegolem.fantaprof.service.HistoryService;
+import com.minegolem.fantaprof.service.ProfessorService;
+import com.minegolem.fantaprof.service.ScoringRuleRegistry;
+import com.minegolem.fantaprof.service.TeamService;
+import com.minegolem.fantaprof.service.UserService;
+import com.minegolem.fantaprof.utils.CustomAuthenticationProvider;
+import com.minegolem.fantaprof.utils.JWTTokenService;
+import com.minegolem.fantaprof.utils.dto.ScoringRuleDTO;
+import com.minegolem.fantaprof.utils.dto.ScoringRulesDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Ricaricamento e ETag delle regole di punteggio
+@WebMvcTest(AdminController.class)
+@Import(SecurityConfig.class)
+class AdminControllerTest {
+
+    private static final List<ScoringRuleDTO> RULES = List.of(
+            new ScoringRuleDTO(1, "goal", "Goal", 3),
+            new ScoringRuleDTO(2, "late", "Ritardo", -1));
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockitoBean
+    private ProfessorService professorService;
+    @MockitoBean
+    private ScoringRuleRegistry scoringRuleRegistry;
+    @MockitoBean
+    private HistoryService historyService;
+    @MockitoBean
+    private TeamService teamService;
+    @MockitoBean
+    private UserService userService;
+    @MockitoBean
+    private CustomAuthenticationProvider customAuthenticationProvider;
+    @MockitoBean
+    private JWTTokenService tokenService;
+
+    @Test
+    void invalidRulesFileIsRejected() throws Exception {
+        when(scoringRuleRegistry.reload())
+                .thenThrow(new IllegalArgumentException("Duplicate scoring rule key in file:rules.json: goal"));
+
+        mvc.perform(post("/api/admin/rules/reload").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Duplicate scoring rule key in file:rules.json: goal"));
+    }
+
+    @Test
+    void reloadReturnsTheNewETag() throws Exception {
+        ScoringRulesDTO rules = new ScoringRulesDTO(2, RULES);
+        when(scoringRuleRegistry.reload()).thenReturn(rules);
+
+        mvc.perform(post("/api/admin/rules/reload").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", rules.getETag()));
+    }
+
+    @Test
+    void etagFollowsTheContentNotTheVersion() throws Exception {
+        // Stesso file caricato da due nodi (o prima e dopo un riavvio) con versioni diverse
+        when(scoringRuleRegistry.getRules()).thenReturn(new ScoringRulesDTO(7, RULES));
+        String etag = new ScoringRulesDTO(1, RULES).getETag();
+
+        mvc.perform(get("/api/admin/rules").with(user("admin").roles("ADMIN")).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        ScoringRulesDTO changed = new ScoringRulesDTO(1, List.of(
+                new ScoringRuleDTO(1, "goal", "Goal", 4),
+                new ScoringRuleDTO(2, "late", "Ritardo", -1)));
+        assertThat(changed.getETag()).isNotEqualTo(etag);
+    }
+}
@@ -0,0 +1,101 @@
+package com.minegolem.fantaprof.repository;
+
+import com.minegolem.fantaprof.repository.database.Professor;
+import com.minegolem.fantaprof.repository.database.Team;
+import com.minegolem.fantaprof.repository.database.User;
+import com.minegolem.fantaprof.utils.TeamScoring;
+import com.minegolem.fantaprof.utils.dto.TeamScoreDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Totali e classifica letti dal database devono seguire le stesse regole della classifica in memoria
+@DataJpaTest
+@ActiveProfiles("test")
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProfessorRepository professorRepository;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    private Professor rossi;
+    private Professor bianchi;
+    private User first;
+    private User second;
+    private User third;
+
+    @BeforeEach
+    void setUp() {
+        rossi = professorRepository.save(new Professor("Rossi", 10, 10));
+        bianchi = professorRepository.save(new Professor("Bianchi", 10, 5));
+        first = userRepository.save(new User("first", "x", 0L, "USER"));
+        second = userRepository.save(new User("second", "x", 0L, "USER"));
+        third = userRepository.save(new User("third", "x", 0L, "USER"));
+
+        // A parità di punti il nome non conta: "Alfa" ha l'id più alto e resta dietro
+        teamRepository.saveAll(List.of(
+                new Team("Mezzo", first.getId(), rossi.getId(), true),
+                new Team("Mezzo", first.getId(), bianchi.getId(), false),
+                new Team("Zeta", second.getId(), rossi.getId(), false),
+                new Team("Zeta", second.getId(), bianchi.getId(), true),
+                new Team("Alfa", third.getId(), rossi.getId(), false),
+                new Team("Alfa", third.getId(), bianchi.getId(), true)));
+        teamRepository.flush();
+    }
+
+    @Test
+    void recomputedTotalsFollowTheCaptainRule() {
+        userRepository.recomputeAllScoreTots();
+
+        assertThat(total(first)).isEqualTo(TeamScoring.memberScore(10, true) + TeamScoring.memberScore(5, false));
+        assertThat(total(second)).isEqualTo(TeamScoring.memberScore(10, false) + TeamScoring.memberScore(5, true));
+    }
+
+    @Test
+    void professorPointsReachEveryTeamWithTheCaptainRule() {
+        userRepository.recomputeAllScoreTots();
+        long captainBefore = total(second);
+        long memberBefore = total(first);
+
+        professorRepository.incrementScore(bianchi.getId(), 3);
+        userRepository.addProfessorPoints(bianchi.getId(), 3);
+
+        assertThat(total(second) - captainBefore).isEqualTo(TeamScoring.memberScore(3, true));
+        assertThat(total(first) - memberBefore).isEqualTo(TeamScoring.memberScore(3, false));
+
+        // L'aggiornamento incrementale e il ricalcolo completo devono arrivare allo stesso totale
+        long incremental = total(second);
+        userRepository.recomputeScoreTot(second.getId());
+        assertThat(total(second)).isEqualTo(incremental);
+    }
+
+    @Test
+    void rankingBreaksTiesLikeTheInMemoryLeaderboard() {
+        userRepository.recomputeAllScoreTots();
+
+        List<TeamScoreDTO> ranking = userRepository.findRanking(0, 10);
+        List<TeamScoreDTO> inMemoryOrder = new ArrayList<>(ranking);
+        inMemoryOrder.sort(TeamScoring.RANKING_ORDER);
+
+        assertThat(ranking).extracting(TeamScoreDTO::getTeamId)
+                .containsExactly(first.getId(), second.getId(), third.getId());
+        assertThat(ranking).isEqualTo(inMemoryOrder);
+        assertThat(userRepository.countAhead(total(third), third.getId())).isEqualTo(2);
+    }
+
+    private long total(User user) {
+        return userRepository.findById(user.getId()).orElseThrow().getScoreTot();
+    }
+}
@@ -0,0 +1,56 @@
+package com.minegolem.fantaprof.repository.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minegolem.fantaprof.repository.database.User;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserBase64ConverterTest {
+
+    private final UserBase64Converter converter = new UserBase64Converter();
+
+    @Test
+    void writesTheVersionedSmileFormatAndReadsItBack() {
+        User user = user();
+
+        String column = converter.convertToDatabaseColumn(user);
+
+        assertThat(column).startsWith(UserBase64Converter.VERSION_HEADER);
+        assertThat(converter.convertToEntityAttribute(column)).usingRecursiveComparison().isEqualTo(user);
+    }
+
+    // Righe scritte prima dell'header di versione: Base64 di JSON
+    @Test
+    void readsLegacyBase64Json() throws Exception {
+        User user = user();
+        String legacy = Base64.getEncoder().encodeToString(
+                new ObjectMapper().writeValueAsString(user).getBytes(StandardCharsets.UTF_8));
+
+        assertThat(legacy).doesNotStartWith(UserBase64Converter.VERSION_HEADER);
+        assertThat(converter.convertToEntityAttribute(legacy)).usingRecursiveComparison().isEqualTo(user);
+    }
+
+    @Test
+    void nullAndEmptyColumnsMapToNull() {
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+        assertThat(converter.convertToEntityAttribute("")).isNull();
+    }
+
+    @Test
+    void rejectsCorruptedData() {
+        assertThatThrownBy(() -> converter.convertToEntityAttribute("not base64!"))
+                .isInstanceOf(RuntimeException.class);
+    }
+
+    private static User user() {
+        User user = new User("mario", "secret", 42L, "USER");
+        user.setId(7L);
+        return user;
+    }
+}
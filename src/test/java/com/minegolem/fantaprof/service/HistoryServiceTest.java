@@ -0,0 +1,82 @@
+package com.minegolem.fantaprof.service;
+
+import com.minegolem.fantaprof.repository.MatchdayScoreRepository;
+import com.minegolem.fantaprof.repository.ProfessorRepository;
+import com.minegolem.fantaprof.repository.ScoreEventRepository;
+import com.minegolem.fantaprof.repository.TeamRepository;
+import com.minegolem.fantaprof.repository.UserRepository;
+import com.minegolem.fantaprof.repository.database.MatchdayScore;
+import com.minegolem.fantaprof.repository.database.MatchdayScore.SubjectType;
+import com.minegolem.fantaprof.repository.database.Professor;
+import com.minegolem.fantaprof.repository.database.ScoreEvent;
+import com.minegolem.fantaprof.repository.database.Team;
+import com.minegolem.fantaprof.repository.database.User;
+import com.minegolem.fantaprof.service.cluster.ClusterPublisher;
+import com.minegolem.fantaprof.utils.TeamScoring;
+import com.minegolem.fantaprof.utils.dto.MatchdayDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// La chiusura di una giornata legge punteggi, classifica e ultimo evento dalla stessa fonte (il database)
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(HistoryService.class)
+class HistoryServiceTest {
+
+    @Autowired
+    private HistoryService historyService;
+
+    @Autowired
+    private ProfessorRepository professorRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private ScoreEventRepository scoreEventRepository;
+
+    @Autowired
+    private MatchdayScoreRepository matchdayScoreRepository;
+
+    @MockitoBean
+    private ClusterPublisher clusterPublisher;
+
+    @Test
+    void closedMatchdayMatchesTheCommittedScores() {
+        Professor rossi = professorRepository.save(new Professor("Rossi", 10, 0));
+        Professor bianchi = professorRepository.save(new Professor("Bianchi", 10, 0));
+        User user = userRepository.save(new User("mario", "x", 0L, "USER"));
+        teamRepository.saveAll(List.of(
+                new Team("Squadra", user.getId(), rossi.getId(), true),
+                new Team("Squadra", user.getId(), bianchi.getId(), false)));
+        teamRepository.flush();
+
+        // Stessi passi di un batch di punteggi: professore, totale della squadra, registro eventi
+        professorRepository.incrementScore(rossi.getId(), 4);
+        userRepository.addProfessorPoints(rossi.getId(), 4);
+        ScoreEvent event = scoreEventRepository.saveAndFlush(new ScoreEvent(rossi.getId(), "goal", 4, "admin"));
+
+        MatchdayDTO closed = historyService.closeMatchday("admin");
+
+        assertThat(closed.getRound()).isEqualTo(1);
+        assertThat(closed.getLastEventId()).isEqualTo(event.getId());
+        assertThat(matchdayScoreRepository.findByRoundGreaterThanOrderByRoundAsc(0))
+                .extracting(MatchdayScore::getSubjectType, MatchdayScore::getSubjectId, MatchdayScore::getScore)
+                .containsExactlyInAnyOrder(
+                        tuple(SubjectType.PROFESSOR, rossi.getId(), 4L),
+                        tuple(SubjectType.PROFESSOR, bianchi.getId(), 0L),
+                        tuple(SubjectType.TEAM, user.getId(), TeamScoring.memberScore(4, true)));
+    }
+}
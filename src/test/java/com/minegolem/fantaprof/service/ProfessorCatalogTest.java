@@ -0,0 +1,67 @@
+package com.minegolem.fantaprof.service;
+
+import com.minegolem.fantaprof.repository.ProfessorRepository;
+import com.minegolem.fantaprof.repository.database.Professor;
+import com.minegolem.fantaprof.utils.dto.ProfessorDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Il caricamento dal database non blocca le modifiche e non pubblica una lista superata da una modifica
+class ProfessorCatalogTest {
+
+    private final ProfessorRepository repository = mock(ProfessorRepository.class);
+    private final ProfessorCatalog catalog = new ProfessorCatalog(repository);
+
+    @Test
+    void changesDoNotWaitForTheLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.findAll()).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return List.of(professor(1L, 10));
+        });
+
+        CompletableFuture<List<ProfessorDTO>> reader = CompletableFuture.supplyAsync(catalog::getProfessors);
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> change = CompletableFuture.runAsync(() -> catalog.scoresAdded(Map.of(1L, 3)));
+        change.get(5, TimeUnit.SECONDS);
+
+        release.countDown();
+        reader.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void loadOverlappingAChangeIsNotPublished() {
+        // La modifica arriva mentre la query è in corso: la lista letta non diventa la cache
+        when(repository.findAll())
+                .thenAnswer(invocation -> {
+                    catalog.scoresAdded(Map.of(1L, 3));
+                    return List.of(professor(1L, 10));
+                })
+                .thenReturn(List.of(professor(1L, 13)));
+
+        assertThat(catalog.getProfessors()).extracting(ProfessorDTO::getScore).containsExactly(10);
+        assertThat(catalog.getProfessors()).extracting(ProfessorDTO::getScore).containsExactly(13);
+        assertThat(catalog.getProfessors()).extracting(ProfessorDTO::getScore).containsExactly(13);
+
+        verify(repository, times(2)).findAll();
+        assertThat(catalog.getStats()).containsEntry("refreshes", 1L);
+    }
+
+    private static Professor professor(Long id, int score) {
+        return new Professor(id, "Prof " + id, 10, score);
+    }
+}
@@ -0,0 +1,79 @@
+package com.minegolem.fantaprof.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProfessorTeamIndexTest {
+
+    private final ProfessorTeamIndex index = new ProfessorTeamIndex();
+
+    @Test
+    void keepsOwnersInInsertionOrder() {
+        index.add(7, 100);
+        index.add(7, 101);
+        index.add(8, 100);
+
+        assertThat(owners(7)).containsExactly(100L, 101L);
+        assertThat(owners(8)).containsExactly(100L);
+        assertThat(index.count(9)).isZero();
+        assertThat(owners(9)).isEmpty();
+    }
+
+    // Oltre la capacità iniziale (64 slot) e oltre i 4 proprietari iniziali per professore
+    @Test
+    void resizeKeepsEveryProfessorAndOwner() {
+        for (long professor = 1; professor <= 500; professor++) {
+            for (long owner = 0; owner < professor % 11; owner++) {
+                index.add(professor, professor * 1000 + owner);
+            }
+        }
+
+        for (long professor = 1; professor <= 500; professor++) {
+            assertThat(index.count(professor)).isEqualTo((int) (professor % 11));
+            List<Long> owners = owners(professor);
+            for (int owner = 0; owner < owners.size(); owner++) {
+                assertThat(owners.get(owner)).isEqualTo(professor * 1000 + owner);
+            }
+        }
+    }
+
+    @Test
+    void removeKeepsTheOtherProfessorsReachable() {
+        for (long professor = 1; professor <= 300; professor++) {
+            index.add(professor, professor + 10_000);
+        }
+
+        for (long professor = 1; professor <= 300; professor += 3) {
+            index.remove(professor);
+        }
+        index.remove(12_345);
+
+        for (long professor = 1; professor <= 300; professor++) {
+            if ((professor - 1) % 3 == 0) {
+                assertThat(index.count(professor)).isZero();
+            } else {
+                assertThat(owners(professor)).containsExactly(professor + 10_000);
+            }
+        }
+    }
+
+    @Test
+    void professorCanBeAddedAgainAfterRemove() {
+        index.add(5, 1);
+        index.add(5, 2);
+        index.remove(5);
+        index.add(5, 3);
+
+        assertThat(owners(5)).containsExactly(3L);
+    }
+
+    private List<Long> owners(long professorId) {
+        List<Long> owners = new ArrayList<>();
+        index.forEach(professorId, owners::add);
+        return owners;
+    }
+}
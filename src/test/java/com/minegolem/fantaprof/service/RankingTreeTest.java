@@ -0,0 +1,118 @@
+package com.minegolem.fantaprof.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankingTreeTest {
+
+    private record Entry(Long id, long score) {
+    }
+
+    // Stesso ordine della classifica: punteggio decrescente, a parità l'id minore
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong(Entry::score).reversed()
+            .thenComparing(Entry::id);
+
+    private final RankingTree<Entry> tree = new RankingTree<>(ORDER, Entry::id);
+
+    @Test
+    void rankFollowsScoreThenId() {
+        tree.put(new Entry(1L, 10));
+        tree.put(new Entry(2L, 30));
+        tree.put(new Entry(3L, 10));
+        tree.put(new Entry(4L, 20));
+
+        assertThat(tree.rankOf(2L)).isEqualTo(1);
+        assertThat(tree.rankOf(4L)).isEqualTo(2);
+        assertThat(tree.rankOf(1L)).isEqualTo(3);
+        assertThat(tree.rankOf(3L)).isEqualTo(4);
+        assertThat(tree.rankOf(99L)).isZero();
+    }
+
+    @Test
+    void putReplacesTheKeyWithTheSameId() {
+        tree.put(new Entry(1L, 10));
+        tree.put(new Entry(2L, 20));
+        tree.put(new Entry(1L, 30));
+
+        assertThat(tree.size()).isEqualTo(2);
+        assertThat(tree.rankOf(1L)).isEqualTo(1);
+        assertThat(tree.range(0, 10)).containsExactly(new Entry(1L, 30), new Entry(2L, 20));
+    }
+
+    @Test
+    void removeDropsTheIdAndShiftsTheOthers() {
+        tree.put(new Entry(1L, 30));
+        tree.put(new Entry(2L, 20));
+        tree.put(new Entry(3L, 10));
+
+        tree.remove(1L);
+        tree.remove(42L);
+
+        assertThat(tree.size()).isEqualTo(2);
+        assertThat(tree.rankOf(1L)).isZero();
+        assertThat(tree.rankOf(3L)).isEqualTo(2);
+    }
+
+    @Test
+    void rangeIsClippedToTheRanking() {
+        for (long id = 1; id <= 5; id++) {
+            tree.put(new Entry(id, 100 - id));
+        }
+
+        assertThat(tree.range(1, 2)).extracting(Entry::id).containsExactly(2L, 3L);
+        assertThat(tree.range(3, 10)).extracting(Entry::id).containsExactly(4L, 5L);
+        assertThat(tree.range(5, 10)).isEmpty();
+        assertThat(tree.range(0, 0)).isEmpty();
+    }
+
+    @Test
+    void aroundReturnsTheNeighbours() {
+        for (long id = 1; id <= 5; id++) {
+            tree.put(new Entry(id, 100 - id));
+        }
+
+        RankingTree.Slice<Entry> slice = tree.around(1L, 2);
+        assertThat(slice.rank).isEqualTo(1);
+        assertThat(slice.firstRank).isEqualTo(1);
+        assertThat(slice.total).isEqualTo(5);
+        assertThat(slice.keys).extracting(Entry::id).containsExactly(1L, 2L, 3L);
+
+        assertThat(tree.around(4L, 1).keys).extracting(Entry::id).containsExactly(3L, 4L, 5L);
+        assertThat(tree.around(99L, 1)).isNull();
+    }
+
+    @Test
+    void matchesASortedListUnderRandomUpdates() {
+        Random random = new Random(7);
+        Map<Long, Entry> expected = new HashMap<>();
+
+        for (int step = 0; step < 2000; step++) {
+            long id = random.nextInt(200);
+            if (random.nextInt(4) == 0) {
+                tree.remove(id);
+                expected.remove(id);
+            } else {
+                Entry entry = new Entry(id, random.nextInt(50));
+                tree.put(entry);
+                expected.put(id, entry);
+            }
+        }
+
+        List<Entry> sorted = new ArrayList<>(expected.values());
+        sorted.sort(ORDER);
+        assertThat(tree.size()).isEqualTo(sorted.size());
+        assertThat(tree.range(0, sorted.size())).isEqualTo(sorted);
+        assertThat(tree.range(17, 25)).isEqualTo(sorted.subList(17, Math.min(42, sorted.size())));
+        for (int i = 0; i < sorted.size(); i++) {
+            assertThat(tree.rankOf(sorted.get(i).id())).isEqualTo(i + 1);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.minegolem.fantaprof.service;
+
+import com.minegolem.fantaprof.repository.JobLockRepository;
+import com.minegolem.fantaprof.repository.ProfessorRepository;
+import com.minegolem.fantaprof.repository.ScoreEventRepository;
+import com.minegolem.fantaprof.repository.ScoreSnapshotRepository;
+import com.minegolem.fantaprof.repository.UserRepository;
+import com.minegolem.fantaprof.repository.database.JobLock;
+import com.minegolem.fantaprof.repository.database.Professor;
+import com.minegolem.fantaprof.repository.database.ScoreEvent;
+import com.minegolem.fantaprof.repository.database.ScoreSnapshot;
+import com.minegolem.fantaprof.service.cluster.ClusterPublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Registro e snapshot tenuti in liste in memoria: ricostruire da snapshot + coda deve dare lo stesso
+// risultato del replay completo, qualunque sia il punto in cui è stato fatto lo snapshot
+class ScoreEventServiceTest {
+
+    private final List<ScoreEvent> events = new ArrayList<>();
+    private final List<ScoreSnapshot> snapshots = new ArrayList<>();
+    private final Map<Long, Integer> initialScores = Map.of(1L, 10, 2L, 0, 3L, 5);
+
+    private final ProfessorCatalog catalog = mock(ProfessorCatalog.class);
+    private final LeaderboardService leaderboardService = mock(LeaderboardService.class);
+
+    private ScoreEventService service;
+
+    @BeforeEach
+    void setUp() {
+        ScoreEventRepository eventRepository = mock(ScoreEventRepository.class);
+        when(eventRepository.findLastId()).thenAnswer(call -> events.isEmpty() ? null : events.get(events.size() - 1).getId());
+        when(eventRepository.streamRange(anyLong(), anyLong())).thenAnswer(call -> {
+            long from = call.getArgument(0);
+            long to = call.getArgument(1);
+            return events.stream().filter(event -> event.getId() > from && event.getId() <= to);
+        });
+
+        ScoreSnapshotRepository snapshotRepository = mock(ScoreSnapshotRepository.class);
+        when(snapshotRepository.findLastEventId()).thenAnswer(call -> snapshots.stream()
+                .map(ScoreSnapshot::getLastEventId)
+                .max(Long::compare)
+                .orElse(null));
+        when(snapshotRepository.findByLastEventId(anyLong())).thenAnswer(call -> snapshots.stream()
+                .filter(snapshot -> Objects.equals(snapshot.getLastEventId(), call.getArgument(0)))
+                .toList());
+        when(snapshotRepository.saveAll(anyIterable())).thenAnswer(call -> {
+            Iterable<ScoreSnapshot> rows = call.getArgument(0);
+            rows.forEach(snapshots::add);
+            return List.of();
+        });
+
+        ProfessorRepository professorRepository = mock(ProfessorRepository.class);
+        when(professorRepository.findAllForShare()).thenAnswer(call -> professors());
+        when(professorRepository.findAll()).thenAnswer(call -> professors());
+        when(professorRepository.findAllForUpdate()).thenAnswer(call -> professors());
+
+        JobLockRepository jobLockRepository = mock(JobLockRepository.class);
+        when(jobLockRepository.tryLock(anyString()))
+                .thenAnswer(call -> Optional.of(new JobLock(ScoreEventService.SNAPSHOT_JOB, null)));
+
+        service = new ScoreEventService(eventRepository, snapshotRepository, professorRepository,
+                mock(UserRepository.class), leaderboardService, catalog, mock(BroadcastService.class), jobLockRepository,
+                mock(LeaderboardVersionService.class), mock(ClusterPublisher.class));
+    }
+
+    @Test
+    void firstSnapshotStartsFromTheCurrentScores() {
+        service.snapshotNow();
+
+        assertThat(service.rebuildScores()).isEqualTo(initialScores);
+    }
+
+    @Test
+    void snapshotPlusTailMatchesTheFullReplay() {
+        Random random = new Random(3);
+        service.snapshotNow();
+
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                long professorId = 1 + random.nextInt(3);
+                events.add(new ScoreEvent((long) events.size() + 1, professorId, "rule", random.nextInt(21) - 10,
+                        LocalDateTime.now(), "admin"));
+            }
+
+            assertThat(service.rebuildScores()).isEqualTo(fullReplay());
+            service.snapshotNow();
+            assertThat(service.rebuildScores()).isEqualTo(fullReplay());
+        }
+    }
+
+    @Test
+    void snapshotIsSkippedWhenNoNewEvents() {
+        service.snapshotNow();
+        events.add(new ScoreEvent(1L, 1L, "rule", 3, LocalDateTime.now(), "admin"));
+        service.snapshotNow();
+        int rows = snapshots.size();
+
+        service.snapshotNow();
+
+        assertThat(snapshots).hasSize(rows);
+    }
+
+    // Prima del primo snapshot gli eventi sono già dentro i punteggi attuali: il restore non deve toccarli
+    @Test
+    void restoreWithoutSnapshotKeepsTheCurrentScores() {
+        events.add(new ScoreEvent(1L, 1L, "rule", 3, LocalDateTime.now(), "admin"));
+        events.add(new ScoreEvent(2L, 3L, "rule", -2, LocalDateTime.now(), "admin"));
+
+        assertThat(service.rebuildScores()).isEqualTo(initialScores);
+
+        service.restoreScores().join();
+
+        verify(catalog).scoresAdded(Map.of());
+        verify(leaderboardService).scoresAdded(Map.of());
+    }
+
+    @Test
+    void restoreAfterSnapshotReplaysTheTail() {
+        service.snapshotNow();
+        events.add(new ScoreEvent(1L, 1L, "rule", 3, LocalDateTime.now(), "admin"));
+
+        service.restoreScores().join();
+
+        verify(catalog).scoresAdded(Map.of(1L, 3));
+    }
+
+    private List<Professor> professors() {
+        return initialScores.entrySet().stream()
+                .map(entry -> new Professor(entry.getKey(), "P" + entry.getKey(), 10, entry.getValue()))
+                .toList();
+    }
+
+    private Map<Long, Integer> fullReplay() {
+        Map<Long, Integer> scores = new HashMap<>(initialScores);
+        events.forEach(event -> scores.merge(event.getProfessorId(), event.getDelta(), Integer::sum));
+        return scores;
+    }
+}
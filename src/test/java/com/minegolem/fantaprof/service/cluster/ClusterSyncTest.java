@@ -0,0 +1,168 @@
+package com.minegolem.fantaprof.service.cluster;
+
+import com.minegolem.fantaprof.repository.ProfessorRepository;
+import com.minegolem.fantaprof.repository.TeamRepository;
+import com.minegolem.fantaprof.repository.database.Professor;
+import com.minegolem.fantaprof.repository.database.Team;
+import com.minegolem.fantaprof.service.BroadcastService;
+import com.minegolem.fantaprof.service.HistoryService;
+import com.minegolem.fantaprof.service.LeaderboardService;
+import com.minegolem.fantaprof.service.ProfessorCatalog;
+import com.minegolem.fantaprof.service.UserService;
+import com.minegolem.fantaprof.service.cluster.ClusterEvent.Type;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ClusterSyncTest {
+
+    private final LoopbackClusterBus bus = new LoopbackClusterBus();
+    private final List<Node> nodes = new ArrayList<>();
+
+    @AfterEach
+    void stopNodes() throws InterruptedException {
+        for (Node node : nodes) {
+            node.publisher.stop();
+        }
+    }
+
+    // Il punteggio assegnato sul nodo A cambia la classifica di tutti gli altri nodi
+    @Test
+    void scoreDeltaReachesEveryOtherNode() {
+        Node a = node(Duration.ofMillis(10));
+        Node b = node(Duration.ofMillis(10));
+        Node c = node(Duration.ofMillis(10));
+
+        a.leaderboard.scoresAdded(Map.of(1L, 30));
+        a.publisher.scoresAdded(Map.of(1L, 30));
+
+        for (Node other : List.of(b, c)) {
+            verify(other.broadcast, timeout(1000)).publish(any());
+            verify(other.catalog).scoresAdded(Map.of(1L, 30));
+            assertThat(other.leaderboard.getRanking()).usingRecursiveComparison()
+                    .isEqualTo(a.leaderboard.getRanking());
+        }
+        verify(a.broadcast, never()).publish(any());
+    }
+
+    @Test
+    void eventsWithinTheWindowTravelInOneBatch() {
+        List<ClusterBatch> sent = new CopyOnWriteArrayList<>();
+        bus.subscribe(sent::add);
+        Node a = node(Duration.ofMillis(200));
+        Node b = node(Duration.ofMillis(200));
+
+        for (int i = 0; i < 5; i++) {
+            a.publisher.scoresAdded(Map.of(2L, 1));
+        }
+
+        // Si attende sul broadcast: i metodi synchronized del catalogo terrebbero il lock durante l'attesa
+        verify(b.broadcast, timeout(2000).times(5)).publish(any());
+        verify(b.catalog, times(5)).scoresAdded(Map.of(2L, 1));
+        assertThat(sent).hasSize(1);
+        assertThat(sent.get(0).getEvents()).extracting(ClusterEvent::getSequence).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void duplicateAndOwnEventsAreIgnored() {
+        Node a = node(Duration.ofMillis(10));
+        ClusterBatch batch = new ClusterBatch("other", List.of(scores(1), scores(2)));
+
+        a.receiver.receive(batch);
+        a.receiver.receive(batch);
+        a.receiver.receive(new ClusterBatch(a.publisher.getNodeId(), List.of(scores(3))));
+
+        verify(a.catalog, times(2)).scoresAdded(anyMap());
+    }
+
+    @Test
+    void teamCreatedOnAnotherNodeIsLoadedFromTheDatabase() {
+        Node a = node(Duration.ofMillis(10));
+        when(a.teamRepository.findByUserId(20L)).thenReturn(Optional.of(List.of(
+                new Team(10L, "Nuova", 20L, 1L, true),
+                new Team(11L, "Nuova", 20L, 2L, false))));
+
+        a.receiver.receive(new ClusterBatch("other", List.of(new ClusterEvent(Type.TEAM_CREATED, 1, 20L, null))));
+
+        assertThat(a.leaderboard.getRanking()).extracting(team -> team.getTeamId()).contains(20L);
+        verify(a.userService).invalidateUser(20L);
+    }
+
+    // Un evento perso (o un nodo che si collega a sequenza avviata) fa ricaricare tutto invece di divergere
+    @Test
+    void gapInTheSequenceReloadsFromTheDatabase() {
+        Node a = node(Duration.ofMillis(10));
+
+        a.receiver.receive(new ClusterBatch("other", List.of(scores(1))));
+        a.receiver.receive(new ClusterBatch("other", List.of(scores(3), scores(4))));
+
+        verify(a.catalog).invalidate();
+        verify(a.history).refresh();
+        verify(a.professorRepository, times(2)).findAll();
+        // Il 3 è già nel database ricaricato, il 4 si applica normalmente
+        verify(a.catalog, times(2)).scoresAdded(anyMap());
+    }
+
+    private static ClusterEvent scores(long sequence) {
+        return new ClusterEvent(Type.SCORES_ADDED, sequence, null, Map.of(1L, 5));
+    }
+
+    private Node node(Duration window) {
+        Node node = new Node(window);
+        nodes.add(node);
+        return node;
+    }
+
+    private class Node {
+        final ProfessorRepository professorRepository = mock(ProfessorRepository.class);
+        final TeamRepository teamRepository = mock(TeamRepository.class);
+        final ProfessorCatalog catalog = mock(ProfessorCatalog.class);
+        final BroadcastService broadcast = mock(BroadcastService.class);
+        final HistoryService history = mock(HistoryService.class);
+        final UserService userService = mock(UserService.class);
+        final LeaderboardService leaderboard = new LeaderboardService(teamRepository, professorRepository);
+        final ClusterPublisher publisher;
+        final ClusterReceiver receiver;
+
+        Node(Duration window) {
+            when(professorRepository.findAll()).thenReturn(List.of(
+                    new Professor(1L, "Rossi", 10, 0),
+                    new Professor(2L, "Bianchi", 10, 0)));
+            when(teamRepository.findAll()).thenReturn(List.of(
+                    new Team(1L, "Alfa", 10L, 1L, true),
+                    new Team(2L, "Alfa", 10L, 2L, false),
+                    new Team(3L, "Beta", 11L, 2L, true)));
+            leaderboard.init();
+
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            publisher = new ClusterPublisher(bus, registry);
+            ReflectionTestUtils.setField(publisher, "brokerMode", "cluster");
+            ReflectionTestUtils.setField(publisher, "batchWindow", window);
+            ReflectionTestUtils.setField(publisher, "maxBatchSize", 100);
+            ReflectionTestUtils.setField(publisher, "queueCapacity", 100);
+            publisher.start();
+
+            receiver = new ClusterReceiver(bus, publisher, catalog, leaderboard, broadcast, history, userService,
+                    professorRepository, teamRepository, registry);
+            receiver.start();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.minegolem.fantaprof.utils;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JWTTokenServiceTest {
+
+    private static final String SECRET = "a".repeat(JWTTokenService.MIN_SECRET_BYTES);
+
+    @Test
+    void statelessModeRefusesToStartWithoutASecret() {
+        assertThatThrownBy(() -> service("", true)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> service("SECRET_KEY", true)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void sessionModeStartsWithARandomKey() {
+        JWTTokenService service = service("", false);
+
+        assertThat(service.verify(service.issue(principal()))).isNotNull();
+    }
+
+    @Test
+    void issuedTokenCarriesThePrincipal() {
+        JWTTokenService service = service(SECRET, true);
+
+        DecodedJWT jwt = service.verify(service.issue(principal()));
+
+        assertThat(jwt.getSubject()).isEqualTo("mario");
+        assertThat(jwt.getClaim(SecurityConstants.ROLE_CLAIM).asString()).isEqualTo("USER");
+        assertThat(jwt.getClaim(SecurityConstants.USER_ID_CLAIM).asLong()).isEqualTo(7L);
+        assertThat(jwt.getClaim(SecurityConstants.TEAM_CLAIM).asString()).isEqualTo("I Prof");
+        assertThat(service.needsRefresh(jwt)).isFalse();
+    }
+
+    // Il vecchio segreto fisso era pubblico: un token ADMIN firmato con quello non deve passare
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() {
+        JWTTokenService service = service(SECRET, true);
+        String forged = JWT.create()
+                .withSubject("attacker")
+                .withClaim(SecurityConstants.ROLE_CLAIM, "ADMIN")
+                .withExpiresAt(new Date(System.currentTimeMillis() + 60_000))
+                .sign(Algorithm.HMAC512("SECRET_KEY".getBytes()));
+
+        assertThat(service.verify(forged)).isNull();
+    }
+
+    @Test
+    void tokenPastHalfItsLifeNeedsRefresh() {
+        JWTTokenService service = service(SECRET, true);
+        ReflectionTestUtils.setField(service, "ttl", Duration.ofSeconds(10));
+        String token = service.issue(principal());
+        ReflectionTestUtils.setField(service, "ttl", Duration.ofMinutes(15));
+
+        assertThat(service.needsRefresh(service.verify(token))).isTrue();
+    }
+
+    @Test
+    void cookieIsHttpOnlySecureAndSameSite() {
+        Cookie cookie = service(SECRET, true).cookie("token");
+
+        assertThat(cookie.isHttpOnly()).isTrue();
+        assertThat(cookie.getSecure()).isTrue();
+        assertThat(cookie.getAttribute("SameSite")).isEqualTo("Lax");
+        assertThat(cookie.getMaxAge()).isEqualTo(15 * 60);
+    }
+
+    private static JWTTokenService service(String secret, boolean stateless) {
+        JWTTokenService service = new JWTTokenService();
+        ReflectionTestUtils.setField(service, "secret", secret);
+        ReflectionTestUtils.setField(service, "stateless", stateless);
+        ReflectionTestUtils.setField(service, "ttl", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(service, "secureCookie", true);
+        service.init();
+        return service;
+    }
+
+    private static FantaPrincipal principal() {
+        return new FantaPrincipal(7L, "mario", "USER", "I Prof");
+    }
+}
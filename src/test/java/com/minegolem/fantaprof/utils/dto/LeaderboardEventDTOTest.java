@@ -0,0 +1,121 @@
+package com.minegolem.fantaprof.utils.dto;
+
+import com.minegolem.fantaprof.utils.dto.LeaderboardEventDTO.EventType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntUnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeaderboardEventDTOTest {
+
+    @Test
+    void mergeKeepsScoresOfTheLastEventAndTheFirstBaseVersion() {
+        LeaderboardEventDTO first = new LeaderboardEventDTO(EventType.SCORE, 5, 4, 1L, Map.of(1L, 10, 2L, 3), List.of());
+        LeaderboardEventDTO next = new LeaderboardEventDTO(EventType.SCORE, 6, 5, 2L, Map.of(2L, 7), List.of());
+
+        LeaderboardEventDTO merged = first.merge(next);
+
+        assertThat(merged.getVersion()).isEqualTo(6);
+        assertThat(merged.getBaseVersion()).isEqualTo(4);
+        assertThat(merged.getProfessorId()).isNull();
+        assertThat(merged.getScores()).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 10, 2L, 7));
+    }
+
+    // A B C D -> (D sale in testa) D A B C -> (B sale in testa) B D A C
+    @Test
+    void mergeDescribesBothMovesFromTheFirstBase() {
+        LeaderboardEventDTO first = new LeaderboardEventDTO(EventType.SCORE, 2, 1, null, Map.of(),
+                List.of(new TeamDeltaDTO(4L, "D", 40L, 1, 4)));
+        LeaderboardEventDTO next = new LeaderboardEventDTO(EventType.SCORE, 3, 2, null, Map.of(),
+                List.of(new TeamDeltaDTO(2L, "B", 50L, 1, 3)));
+
+        Map<Long, int[]> ranks = new HashMap<>();
+        first.merge(next).getTeams().forEach(team ->
+                ranks.put(team.getTeamId(), new int[]{team.getPreviousRank(), team.getRank()}));
+
+        assertThat(ranks).containsOnlyKeys(2L, 4L);
+        assertThat(ranks.get(4L)).containsExactly(4, 2);
+        assertThat(ranks.get(2L)).containsExactly(2, 1);
+    }
+
+    @Test
+    void mergeKeepsZeroPreviousRankForNewTeams() {
+        LeaderboardEventDTO first = new LeaderboardEventDTO(EventType.TEAM_CREATED, 2, 1, null, Map.of(),
+                List.of(new TeamDeltaDTO(1L, "A", 10L, 1, 2)));
+        LeaderboardEventDTO next = new LeaderboardEventDTO(EventType.TEAM_CREATED, 3, 2, null, Map.of(),
+                List.of(new TeamDeltaDTO(9L, "Z", 0L, 3, 0)));
+
+        TeamDeltaDTO created = first.merge(next).getTeams().stream()
+                .filter(team -> team.getTeamId() == 9L)
+                .findFirst()
+                .orElseThrow();
+
+        assertThat(created.getPreviousRank()).isZero();
+        assertThat(created.getRank()).isEqualTo(3);
+    }
+
+    // Applicare l'evento accorpato alla classifica di partenza deve dare la stessa classifica dei due eventi in fila
+    @Test
+    void mergedEventReplaysLikeTheSequence() {
+        Random random = new Random(11);
+        for (int trial = 0; trial < 500; trial++) {
+            List<Long> start = new ArrayList<>();
+            int size = 3 + random.nextInt(8);
+            for (long id = 1; id <= size; id++) {
+                start.add(id);
+            }
+            Set<Long> movedFirst = new HashSet<>();
+            Set<Long> movedNext = new HashSet<>();
+            List<Long> middle = move(start, random, movedFirst);
+            List<Long> end = move(middle, random, movedNext);
+
+            LeaderboardEventDTO first = event(2, start, middle, movedFirst);
+            LeaderboardEventDTO next = event(3, middle, end, movedNext);
+
+            assertThat(apply(start, first)).isEqualTo(middle);
+            assertThat(apply(start, first.merge(next))).isEqualTo(end);
+        }
+    }
+
+    // Sposta alcune squadre (eventualmente una nuova) in posizioni casuali: le altre mantengono l'ordine relativo
+    private static List<Long> move(List<Long> ranking, Random random, Set<Long> moved) {
+        List<Long> result = new ArrayList<>(ranking);
+        int moves = 1 + random.nextInt(3);
+        for (int i = 0; i < moves; i++) {
+            Long team = random.nextInt(5) == 0 ? 100L + random.nextInt(1000) : result.get(random.nextInt(result.size()));
+            result.remove(team);
+            result.add(random.nextInt(result.size() + 1), team);
+            moved.add(team);
+        }
+        return result;
+    }
+
+    private static LeaderboardEventDTO event(long version, List<Long> before, List<Long> after, Set<Long> moved) {
+        List<TeamDeltaDTO> teams = new ArrayList<>();
+        for (Long team : moved) {
+            teams.add(new TeamDeltaDTO(team, "T" + team, 0L, after.indexOf(team) + 1, before.indexOf(team) + 1));
+        }
+        return new LeaderboardEventDTO(EventType.SCORE, version, version - 1, null, Map.of(), teams);
+    }
+
+    private static List<Long> apply(List<Long> ranking, LeaderboardEventDTO event) {
+        IntUnaryOperator shift = TeamDeltaDTO.rankShift(event.getTeams(), true);
+        Map<Long, Integer> ranks = new HashMap<>();
+        for (int i = 0; i < ranking.size(); i++) {
+            ranks.put(ranking.get(i), shift.applyAsInt(i + 1));
+        }
+        event.getTeams().forEach(team -> ranks.put(team.getTeamId(), team.getRank()));
+
+        Long[] result = new Long[ranks.size()];
+        ranks.forEach((team, rank) -> result[rank - 1] = team);
+        return List.of(result);
+    }
+}